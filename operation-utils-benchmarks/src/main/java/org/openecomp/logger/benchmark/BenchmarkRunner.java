@@ -0,0 +1,53 @@
+
+/*-
+ * ============LICENSE_START==========================================
+ * OPENECOMP - DCAE
+ * ===================================================================
+ * Copyright (c) 2017 AT&T Intellectual Property. All rights reserved.
+ * ===================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END============================================
+ */
+	
+package org.openecomp.logger.benchmark;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks matching the given regular expression (all of them by default) single threaded and at 8, 32 and
+ * 128 threads, measuring throughput, sampled latency and allocation per operation. One JSON result file per thread
+ * count is written to the working directory.
+ */
+public class BenchmarkRunner {
+
+	static final int[] THREADS = { 1, 8, 32, 128 };
+
+	public static void main(String[] args) throws RunnerException {
+		String include = args.length > 0 ? args[0] : ".*Benchmark.*";
+		for (int threads : THREADS) {
+			ChainedOptionsBuilder options = new OptionsBuilder().include(include).threads(threads)
+					.mode(Mode.Throughput).mode(Mode.SampleTime).addProfiler(GCProfiler.class)
+					.resultFormat(ResultFormatType.JSON).result("jmh-result-t" + threads + ".json");
+			// a single shot over a million virtual threads, not a per thread count measurement
+			if (args.length == 0)
+				options.exclude("VirtualThreadBenchmark");
+			new Runner(options.build()).run();
+		}
+	}
+}
@@ -0,0 +1,87 @@
+
+/*-
+ * ============LICENSE_START==========================================
+ * OPENECOMP - DCAE
+ * ===================================================================
+ * Copyright (c) 2017 AT&T Intellectual Property. All rights reserved.
+ * ===================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END============================================
+ */
+	
+package org.openecomp.logger.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.openecomp.logger.EcompLogger;
+import org.openecomp.logger.GenericMessagesMessageEnum;
+
+/**
+ * Cost of debug and info calls when the EcompLogger loggers are set to WARN, next to an empty method as baseline.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DisabledLoggingBenchmark {
+
+	File dir;
+	EcompLogger logger;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		dir = LoggingSinks.install(LoggingSinks.NOOP, ch.qos.logback.classic.Level.WARN);
+		logger = EcompLogger.getEcompLogger();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		LoggingSinks.uninstall(dir);
+	}
+
+	@Benchmark
+	public void baseline() {
+	}
+
+	@Benchmark
+	public void debugDisabled() {
+		logger.debug("benchmark debug");
+	}
+
+	@Benchmark
+	public void debugMessageDisabled() {
+		logger.debug(GenericMessagesMessageEnum.ECOMP_GENERAL_INFO, "benchmark debug");
+	}
+
+	@Benchmark
+	public void infoDisabled() {
+		logger.info(GenericMessagesMessageEnum.ECOMP_GENERAL_INFO, "benchmark info");
+	}
+}
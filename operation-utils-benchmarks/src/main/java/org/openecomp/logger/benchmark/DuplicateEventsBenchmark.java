@@ -0,0 +1,99 @@
+
+/*-
+ * ============LICENSE_START==========================================
+ * OPENECOMP - DCAE
+ * ===================================================================
+ * Copyright (c) 2017 AT&T Intellectual Property. All rights reserved.
+ * ===================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END============================================
+ */
+	
+package org.openecomp.logger.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.openecomp.logger.DuplicateEvents;
+import org.openecomp.logger.EcompLogger;
+import org.openecomp.logger.GenericMessagesMessageEnum;
+
+/**
+ * Cost of the same error logged over and over to the error file, as during an outage of a dependency, with and
+ * without the duplicate collapsing, and of errors that differ in their arguments every time.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DuplicateEventsBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class Sink {
+		@Param({ "false", "true" })
+		public boolean dedup;
+
+		File dir;
+
+		@Setup(Level.Trial)
+		public void setUp() throws IOException {
+			dir = LoggingSinks.install(LoggingSinks.FILE);
+			DuplicateEvents.setEnabled(dedup);
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			DuplicateEvents.setEnabled(false);
+			LoggingSinks.uninstall(dir);
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class Request {
+		EcompLogger logger;
+		int n;
+
+		@Setup(Level.Trial)
+		public void setUp(Sink sink) {
+			logger = EcompLogger.getEcompLogger();
+			EcompLogger.setLogContext("benchmark-request", "benchmark-service-instance");
+			EcompLogger.setServiceName("benchmark");
+		}
+	}
+
+	@Benchmark
+	public void sameError(Request r) {
+		r.logger.error(GenericMessagesMessageEnum.ECOMP_GENERAL_ERROR, "connection refused: benchmark-target");
+	}
+
+	@Benchmark
+	public void distinctErrors(Request r) {
+		r.logger.error(GenericMessagesMessageEnum.ECOMP_GENERAL_ERROR, "request " + r.n++ + " failed");
+	}
+}
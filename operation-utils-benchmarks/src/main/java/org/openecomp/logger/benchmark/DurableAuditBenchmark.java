@@ -0,0 +1,114 @@
+
+/*-
+ * ============LICENSE_START==========================================
+ * OPENECOMP - DCAE
+ * ===================================================================
+ * Copyright (c) 2017 AT&T Intellectual Property. All rights reserved.
+ * ===================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END============================================
+ */
+	
+package org.openecomp.logger.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+
+import org.openecomp.logger.EcompLogger;
+import org.openecomp.logger.GroupCommitFileAppender;
+import org.openecomp.logger.StatusCodeEnum;
+
+/**
+ * Audit records that are on disk when the call returns: each logging thread waits for the commit of its record. A
+ * maxBatchSize of 1 is an fsync per record, larger batches share one fsync between the records of all threads that
+ * arrive while the previous batch is forced. Run with several threads, the single threaded figure is the same for all.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DurableAuditBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class Sink {
+		@Param({ "1", "256" })
+		public int maxBatchSize;
+
+		File dir;
+
+		@Setup(Level.Trial)
+		public void setUp() throws IOException {
+			dir = LoggingSinks.install(LoggingSinks.FILE);
+			LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+			PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+			encoder.setContext(context);
+			encoder.setPattern(LoggingSinks.AUDIT_PATTERN);
+			encoder.start();
+			GroupCommitFileAppender appender = new GroupCommitFileAppender();
+			appender.setContext(context);
+			appender.setName("durable-audit");
+			appender.setFile(new File(dir, "durable-audit.log").getAbsolutePath());
+			appender.setMaxBatchSize(maxBatchSize);
+			appender.setEncoder(encoder);
+			appender.start();
+			Logger audit = context.getLogger("org.openecomp.audit");
+			audit.detachAndStopAllAppenders();
+			audit.addAppender(appender);
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			LoggingSinks.uninstall(dir);
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class Request {
+		EcompLogger logger;
+
+		@Setup(Level.Trial)
+		public void setUp(Sink sink) {
+			logger = EcompLogger.getEcompLogger();
+			EcompLogger.setLogContext("benchmark-request", "benchmark-service-instance");
+			EcompLogger.setServiceName("benchmark");
+		}
+	}
+
+	@Benchmark
+	public void durableAuditEvent(Request r) throws InterruptedException, ExecutionException {
+		r.logger.recordAuditEventStart();
+		r.logger.recordAuditEventEndDurably(StatusCodeEnum.COMPLETE).get();
+	}
+}
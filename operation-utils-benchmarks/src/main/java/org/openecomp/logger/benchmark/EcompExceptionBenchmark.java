@@ -0,0 +1,127 @@
+
+/*-
+ * ============LICENSE_START==========================================
+ * OPENECOMP - DCAE
+ * ===================================================================
+ * Copyright (c) 2017 AT&T Intellectual Property. All rights reserved.
+ * ===================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END============================================
+ */
+	
+package org.openecomp.logger.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.openecomp.logger.EcompException;
+import org.openecomp.logger.EcompMessageEnum;
+import org.openecomp.logger.GenericMessagesMessageEnum;
+
+/**
+ * Cost of an EcompException on a failure path that never reads it: created eagerly, created with the message
+ * formatted lazily, and created lazily without a stack trace, both alone and thrown and caught. The exception is
+ * created depth frames below the benchmark method, as it would be deep in a service.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EcompExceptionBenchmark {
+
+	static final EcompMessageEnum WITH_STACK = GenericMessagesMessageEnum.ECOMP_GENERAL_ERROR;
+
+	static final EcompMessageEnum STACKLESS = GenericMessagesMessageEnum.ECOMP_REQUEST_ERROR;
+
+	@Param({ "10", "100" })
+	public int depth;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		EcompException.setStackless(STACKLESS, true);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		EcompException.setStackless(STACKLESS, false);
+	}
+
+	@Benchmark
+	public EcompException createEager() {
+		return create(depth, false, WITH_STACK);
+	}
+
+	@Benchmark
+	public EcompException createLazy() {
+		return create(depth, true, WITH_STACK);
+	}
+
+	@Benchmark
+	public EcompException createLazyStackless() {
+		return create(depth, true, STACKLESS);
+	}
+
+	@Benchmark
+	public Object throwEager() {
+		return throwAndCatch(false, WITH_STACK);
+	}
+
+	@Benchmark
+	public Object throwLazy() {
+		return throwAndCatch(true, WITH_STACK);
+	}
+
+	@Benchmark
+	public Object throwLazyStackless() {
+		return throwAndCatch(true, STACKLESS);
+	}
+
+	private Object throwAndCatch(boolean lazy, EcompMessageEnum msg) {
+		try {
+			fail(depth, lazy, msg);
+			return null;
+		} catch (EcompException e) {
+			return e.msgEnum;
+		}
+	}
+
+	private static void fail(int depth, boolean lazy, EcompMessageEnum msg) {
+		if (depth > 0)
+			fail(depth - 1, lazy, msg);
+		else
+			throw lazy ? EcompException.createLazy(msg, "invalid request parameter: benchmark")
+					: EcompException.create(msg, "invalid request parameter: benchmark");
+	}
+
+	private static EcompException create(int depth, boolean lazy, EcompMessageEnum msg) {
+		if (depth > 0)
+			return create(depth - 1, lazy, msg);
+		return lazy ? EcompException.createLazy(msg, "invalid request parameter: benchmark")
+				: EcompException.create(msg, "invalid request parameter: benchmark");
+	}
+}
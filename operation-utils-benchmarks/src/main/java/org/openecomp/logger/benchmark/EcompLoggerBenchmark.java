@@ -0,0 +1,142 @@
+
+/*-
+ * ============LICENSE_START==========================================
+ * OPENECOMP - DCAE
+ * ===================================================================
+ * Copyright (c) 2017 AT&T Intellectual Property. All rights reserved.
+ * ===================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END============================================
+ */
+	
+package org.openecomp.logger.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.openecomp.logger.EcompLogContext;
+import org.openecomp.logger.EcompLogger;
+import org.openecomp.logger.GenericMessagesMessageEnum;
+import org.openecomp.logger.StatusCodeEnum;
+
+/**
+ * Cost of the EcompLogger calls made on every request and every downstream call.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EcompLoggerBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class Sink {
+		@Param({ LoggingSinks.NOOP, LoggingSinks.FILE, LoggingSinks.MAPPED_FILE, LoggingSinks.EELF_FILE })
+		public String sink;
+
+		File dir;
+
+		@Setup(Level.Trial)
+		public void setUp() throws IOException {
+			dir = LoggingSinks.install(sink);
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			LoggingSinks.uninstall(dir);
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class Request {
+		EcompLogger logger;
+
+		// the same request fields for the context based calls
+		EcompLogContext context;
+
+		@Setup(Level.Trial)
+		public void setUp(Sink sink) {
+			logger = EcompLogger.getEcompLogger();
+			EcompLogger.setLogContext("benchmark-request", "benchmark-service-instance");
+			EcompLogger.setServiceName("benchmark");
+			logger.setPartnerName("jmh");
+			context = EcompLogContext.builder().requestId("benchmark-request")
+					.serviceInstanceId("benchmark-service-instance").serviceName("benchmark").partnerName("jmh")
+					.build();
+		}
+	}
+
+	@Benchmark
+	public void error(Request r) {
+		r.logger.error(GenericMessagesMessageEnum.ECOMP_GENERAL_ERROR, "benchmark error");
+	}
+
+	@Benchmark
+	public void warn(Request r) {
+		r.logger.warn(GenericMessagesMessageEnum.ECOMP_GENERAL_WARNING, "benchmark warning");
+	}
+
+	@Benchmark
+	public void info(Request r) {
+		r.logger.info(GenericMessagesMessageEnum.ECOMP_GENERAL_INFO, "benchmark info");
+	}
+
+	@Benchmark
+	public void debug(Request r) {
+		r.logger.debug("benchmark debug");
+	}
+
+	@Benchmark
+	public void auditEvent(Request r) {
+		r.logger.recordAuditEventStart();
+		r.logger.recordAuditEventEnd(StatusCodeEnum.COMPLETE);
+	}
+
+	@Benchmark
+	public void metricEvent(Request r) {
+		r.logger.recordMetricEventStart("benchmark-target", "benchmark-operation");
+		r.logger.recordMetricEventEnd(StatusCodeEnum.COMPLETE);
+	}
+
+	@Benchmark
+	public void errorWithContext(Request r) {
+		r.logger.error(r.context, GenericMessagesMessageEnum.ECOMP_GENERAL_ERROR, "benchmark error");
+	}
+
+	@Benchmark
+	public void auditEventWithContext(Request r) {
+		r.logger.recordAuditEventStart(r.context);
+		r.logger.recordAuditEventEnd(r.context, StatusCodeEnum.COMPLETE);
+	}
+
+	@Benchmark
+	public void metricEventWithContext(Request r) {
+		r.logger.recordMetricEventStart(r.context, "benchmark-target", "benchmark-operation");
+		r.logger.recordMetricEventEnd(r.context, StatusCodeEnum.COMPLETE);
+	}
+}
@@ -0,0 +1,96 @@
+
+/*-
+ * ============LICENSE_START==========================================
+ * OPENECOMP - DCAE
+ * ===================================================================
+ * Copyright (c) 2017 AT&T Intellectual Property. All rights reserved.
+ * ===================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END============================================
+ */
+	
+package org.openecomp.logger.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.encoder.Encoder;
+
+/**
+ * Encoding of a fully populated EELF record by the pattern encoder of logback.xml and by the EelfEncoder, per record
+ * format. The timestamp moves on every record, as it does in a log.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class EelfEncoderBenchmark {
+
+	@Param({ "audit", "metrics", "error", "debug" })
+	public String schema;
+
+	@Param({ "pattern", "eelf" })
+	public String encoder;
+
+	Encoder<ILoggingEvent> enc;
+
+	LoggingEvent event;
+
+	long timeStamp = System.currentTimeMillis();
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		LoggerContext context = new LoggerContext();
+		String pattern = "audit".equals(schema) ? LoggingSinks.AUDIT_PATTERN
+				: "metrics".equals(schema) ? LoggingSinks.METRICS_PATTERN
+						: "error".equals(schema) ? LoggingSinks.ERROR_PATTERN : LoggingSinks.DEBUG_PATTERN;
+		enc = "eelf".equals(encoder) ? LoggingSinks.eelfEncoder(context, schema)
+				: LoggingSinks.encoder(context, pattern);
+		event = new LoggingEvent("benchmark", context.getLogger("org.openecomp." + schema),
+				ch.qos.logback.classic.Level.INFO, "ECOMP-REMOTE-CALL-OK-2000I benchmark-target", null, null);
+		event.setThreadName("benchmark-thread");
+		Map<String, String> mdc = new HashMap<String, String>();
+		String[] keys = { "BeginTimestamp", "EndTimestamp", "RequestId", "ServiceInstanceId", "VirtualServerName",
+				"ServiceName", "PartnerName", "TargetEntity", "TargetServiceName", "StatusCode", "ResponseCode",
+				"ResponseDescription", "InstanceUUID", "AlertSeverity", "ServerIPAddress", "ElapsedTime", "ServerFQDN",
+				"RemoteHost", "ClassName", "ProcessKey", "ErrorCode", "ErrorDescription" };
+		for (String k : keys)
+			mdc.put(k, "benchmark-" + k);
+		event.setMDCPropertyMap(mdc);
+	}
+
+	@Benchmark
+	public byte[] encode() {
+		event.setTimeStamp(timeStamp++);
+		return enc.encode(event);
+	}
+}
@@ -0,0 +1,102 @@
+
+/*-
+ * ============LICENSE_START==========================================
+ * OPENECOMP - DCAE
+ * ===================================================================
+ * Copyright (c) 2017 AT&T Intellectual Property. All rights reserved.
+ * ===================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END============================================
+ */
+	
+package org.openecomp.logger.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.openecomp.logger.EcompLogger;
+import org.openecomp.logger.EventLimits;
+import org.openecomp.logger.GenericMessagesMessageEnum;
+import org.slf4j.MDC;
+
+/**
+ * Cost of a flood of one warning written to the error file: unlimited, with a limit on another message only, rate
+ * limited to 100 a second for the whole process or per partner, and sampled one in a hundred.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventLimitsBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class Sink {
+		@Param({ "none", "other", "rate", "partnerRate", "sampled" })
+		public String limit;
+
+		File dir;
+
+		@Setup(Level.Trial)
+		public void setUp() throws IOException {
+			dir = LoggingSinks.install(LoggingSinks.FILE);
+			if ("other".equals(limit))
+				EventLimits.setRateLimit(GenericMessagesMessageEnum.ECOMP_LOGGER_POP_ON_EMPTY_STACK, 100, 100);
+			else if ("rate".equals(limit))
+				EventLimits.setRateLimit(GenericMessagesMessageEnum.ECOMP_LOGGER_TOP_ON_EMPTY_STACK, 100, 100);
+			else if ("partnerRate".equals(limit))
+				EventLimits.setRateLimit(GenericMessagesMessageEnum.ECOMP_LOGGER_TOP_ON_EMPTY_STACK, 100, 100, true);
+			else if ("sampled".equals(limit))
+				EventLimits.setSampling(GenericMessagesMessageEnum.ECOMP_LOGGER_TOP_ON_EMPTY_STACK, 0.01);
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			EventLimits.clear();
+			LoggingSinks.uninstall(dir);
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class Request {
+		EcompLogger logger;
+
+		@Setup(Level.Trial)
+		public void setUp(Sink sink) {
+			logger = EcompLogger.getEcompLogger();
+			EcompLogger.setLogContext("benchmark-request", "benchmark-service-instance");
+			EcompLogger.setServiceName("benchmark");
+			MDC.put(EcompLogger.PARTNER_NAME, "partner-" + Thread.currentThread().getId() % 4);
+		}
+	}
+
+	@Benchmark
+	public void floodingWarning(Request r) {
+		r.logger.warn(GenericMessagesMessageEnum.ECOMP_LOGGER_TOP_ON_EMPTY_STACK);
+	}
+}
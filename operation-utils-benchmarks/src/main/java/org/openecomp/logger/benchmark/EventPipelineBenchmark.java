@@ -0,0 +1,119 @@
+
+/*-
+ * ============LICENSE_START==========================================
+ * OPENECOMP - DCAE
+ * ===================================================================
+ * Copyright (c) 2017 AT&T Intellectual Property. All rights reserved.
+ * ===================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END============================================
+ */
+	
+package org.openecomp.logger.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.openecomp.logger.EcompLogContext;
+import org.openecomp.logger.EcompLogger;
+import org.openecomp.logger.EventRing;
+import org.openecomp.logger.StatusCodeEnum;
+
+/**
+ * Latency seen by the thread logging audit and metrics records when they are written to files in the background:
+ * through an AsyncAppender with a queue of 256, the shipped logback.xml set up, or through the EventRing in front of
+ * the file appenders. The sampled percentiles (p0.99, p0.999) are the figures to compare.
+ * 
+ * With its default discarding threshold the AsyncAppender drops INFO records, audit and metrics included, once its
+ * queue is 80% full, while the ring makes producers wait.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventPipelineBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class Pipeline {
+		@Param({ "asyncAppender", "ringBuffer" })
+		public String pipeline;
+
+		File dir;
+
+		@Setup(Level.Trial)
+		public void setUp() throws IOException {
+			if ("ringBuffer".equals(pipeline)) {
+				dir = LoggingSinks.install(LoggingSinks.FILE);
+				EventRing.start();
+			} else {
+				dir = LoggingSinks.install(LoggingSinks.ASYNC_FILE);
+			}
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			EventRing.shutdown(10, TimeUnit.SECONDS);
+			LoggingSinks.uninstall(dir);
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class Request {
+		EcompLogger logger;
+
+		EcompLogContext context;
+
+		@Setup(Level.Trial)
+		public void setUp(Pipeline pipeline) {
+			logger = EcompLogger.getEcompLogger();
+			EcompLogger.setLogContext("benchmark-request", "benchmark-service-instance");
+			EcompLogger.setServiceName("benchmark");
+			context = EcompLogContext.builder().requestId("benchmark-request")
+					.serviceInstanceId("benchmark-service-instance").serviceName("benchmark").build();
+		}
+	}
+
+	@Benchmark
+	public void auditEvent(Request r) {
+		r.logger.recordAuditEventStart();
+		r.logger.recordAuditEventEnd(StatusCodeEnum.COMPLETE);
+	}
+
+	@Benchmark
+	public void metricEvent(Request r) {
+		r.logger.recordMetricEventStart("benchmark-target", "benchmark-operation");
+		r.logger.recordMetricEventEnd(StatusCodeEnum.COMPLETE);
+	}
+
+	@Benchmark
+	public void auditEventWithContext(Request r) {
+		r.logger.recordAuditEventStart(r.context);
+		r.logger.recordAuditEventEnd(r.context, StatusCodeEnum.COMPLETE);
+	}
+}
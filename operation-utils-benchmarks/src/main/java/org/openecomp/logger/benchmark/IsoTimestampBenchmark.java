@@ -0,0 +1,83 @@
+
+/*-
+ * ============LICENSE_START==========================================
+ * OPENECOMP - DCAE
+ * ===================================================================
+ * Copyright (c) 2017 AT&T Intellectual Property. All rights reserved.
+ * ===================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END============================================
+ */
+	
+package org.openecomp.logger.benchmark;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.openecomp.logger.IsoTimestamp;
+import org.openecomp.logger.Stopwatch;
+
+/**
+ * Rendering of the Begin/EndTimestamp fields: the formerly shared SimpleDateFormat (unsafe, kept as the reference
+ * cost), a SimpleDateFormat per thread, and IsoTimestamp.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IsoTimestampBenchmark {
+
+	static final SimpleDateFormat shared = newFormat();
+
+	static final ThreadLocal<SimpleDateFormat> perThread = new ThreadLocal<SimpleDateFormat>() {
+		@Override
+		protected SimpleDateFormat initialValue() {
+			return newFormat();
+		}
+	};
+
+	static SimpleDateFormat newFormat() {
+		SimpleDateFormat f = new SimpleDateFormat(Stopwatch.ISO_FORMAT);
+		f.setTimeZone(TimeZone.getTimeZone("UTC"));
+		return f;
+	}
+
+	@Benchmark
+	public String sharedSimpleDateFormat() {
+		return shared.format(new Date(System.currentTimeMillis()));
+	}
+
+	@Benchmark
+	public String threadLocalSimpleDateFormat() {
+		return perThread.get().format(new Date(System.currentTimeMillis()));
+	}
+
+	@Benchmark
+	public String isoTimestamp() {
+		return IsoTimestamp.format(System.currentTimeMillis());
+	}
+}
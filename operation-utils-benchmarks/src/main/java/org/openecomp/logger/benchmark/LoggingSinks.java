@@ -0,0 +1,181 @@
+
+/*-
+ * ============LICENSE_START==========================================
+ * OPENECOMP - DCAE
+ * ===================================================================
+ * Copyright (c) 2017 AT&T Intellectual Property. All rights reserved.
+ * ===================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END============================================
+ */
+	
+package org.openecomp.logger.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import ch.qos.logback.core.encoder.Encoder;
+import ch.qos.logback.core.helpers.NOPAppender;
+import ch.qos.logback.core.util.FileSize;
+
+import org.openecomp.logger.EelfEncoder;
+import org.openecomp.logger.MappedFileAppender;
+
+/**
+ * Programmatic logback set up for the benchmarks. Replaces whatever configuration was picked up from the class path
+ * (including the scanning logback.xml shipped in operation-utils) with either a discarding sink or file appenders
+ * using the EELF record layouts.
+ */
+public class LoggingSinks {
+
+	public static final String NOOP = "noop";
+	public static final String FILE = "file";
+	/**
+	 * File appenders behind an AsyncAppender with a queue of 256, as in the logback.xml shipped in operation-utils
+	 */
+	public static final String ASYNC_FILE = "asyncFile";
+	/**
+	 * MappedFileAppender with the 2500KB segments of the shipped logback.xml
+	 */
+	public static final String MAPPED_FILE = "mappedFile";
+	/**
+	 * File appenders with the EelfEncoder in place of the pattern encoders
+	 */
+	public static final String EELF_FILE = "eelfFile";
+
+	static final String AUDIT_PATTERN = "%X{BeginTimestamp}|%X{EndTimestamp}|%X{RequestId}|%X{ServiceInstanceId}|%thread|%X{VirtualServerName}|%X{ServiceName}|%X{PartnerName}|%X{StatusCode}|%X{ResponseCode}|%X{ResponseDescription}|%X{InstanceUUID}|%.-5level|%X{AlertSeverity}|%X{ServerIPAddress}|%X{ElapsedTime}|%X{ServerFQDN}|%X{RemoteHost}|%X{ClassName}|%X{Unused}|%X{ProcessKey}|%X{CustomField1}|%X{CustomField2}|%X{CustomField3}|%X{CustomField4}| %msg%n";
+	static final String METRICS_PATTERN = "%X{BeginTimestamp}|%X{EndTimestamp}|%X{RequestId}|%X{ServiceInstanceId}|%thread|%X{VirtualServerName}|%X{ServiceName}|%X{PartnerName}|%X{TargetEntity}|%X{TargetServiceName}|%X{StatusCode}|%X{ResponseCode}|%X{ResponseDescription}|%X{InstanceUUID}|%.-5level|%X{AlertSeverity}|%X{ServerIPAddress}|%X{ElapsedTime}|%X{ServerFQDN}|%X{RemoteHost}|%X{ClassName}|%X{Unused}|%X{ProcessKey}|%X{TargetVirtualEntity}|%X{CustomField1}|%X{CustomField2}|%X{CustomField3}|%X{CustomField4}| %msg%n";
+	static final String ERROR_PATTERN = "%date{ISO8601,UTC}|%X{RequestId}|%thread|%X{ServiceName}|%X{PartnerName}|%X{TargetEntity}|%X{TargetServiceName}|%.-5level|%X{ErrorCode}|%X{ErrorDescription}| %msg%n";
+	static final String DEBUG_PATTERN = "%date{ISO8601,UTC}|%X{RequestId}| %msg%n";
+
+	private static final String[][] CATEGORIES = { { "org.openecomp.error", "error", ERROR_PATTERN },
+			{ "org.openecomp.audit", "audit", AUDIT_PATTERN }, { "org.openecomp.metrics", "metrics", METRICS_PATTERN },
+			{ "org.openecomp.debug", "debug", DEBUG_PATTERN } };
+
+	/**
+	 * Installs the requested sink for the four EcompLogger categories.
+	 * 
+	 * @param sink
+	 *            {@link #NOOP}, {@link #FILE}, {@link #ASYNC_FILE}, {@link #MAPPED_FILE} or {@link #EELF_FILE}
+	 * @param level
+	 *            level of the EcompLogger loggers
+	 * @return the directory holding the log files, or null for the no-op sink
+	 */
+	public static File install(String sink, Level level) throws IOException {
+		LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+		context.reset();
+		context.getLogger(Logger.ROOT_LOGGER_NAME).setLevel(Level.OFF);
+		File dir = null;
+		if (FILE.equals(sink) || ASYNC_FILE.equals(sink) || MAPPED_FILE.equals(sink) || EELF_FILE.equals(sink)) {
+			dir = Files.createTempDirectory("ecomp-bench").toFile();
+		} else if (!NOOP.equals(sink)) {
+			throw new IllegalArgumentException("Unknown sink: " + sink);
+		}
+		for (String[] c : CATEGORIES) {
+			File file = dir == null ? null : new File(dir, c[1] + ".log");
+			Appender<ILoggingEvent> appender = dir == null ? nopAppender(context)
+					: MAPPED_FILE.equals(sink) ? mappedFileAppender(context, file, c[2])
+							: EELF_FILE.equals(sink) ? fileAppender(context, file, eelfEncoder(context, c[1]))
+									: fileAppender(context, file, encoder(context, c[2]));
+			if (ASYNC_FILE.equals(sink))
+				appender = asyncAppender(context, appender);
+			Logger logger = context.getLogger(c[0]);
+			logger.setAdditive(false);
+			logger.setLevel(level);
+			logger.addAppender(appender);
+		}
+		return dir;
+	}
+
+	public static File install(String sink) throws IOException {
+		return install(sink, Level.DEBUG);
+	}
+
+	/**
+	 * Stops the appenders and removes the files written by a {@link #FILE} or {@link #ASYNC_FILE} sink.
+	 */
+	public static void uninstall(File dir) {
+		((LoggerContext) LoggerFactory.getILoggerFactory()).reset();
+		if (dir == null)
+			return;
+		File[] files = dir.listFiles();
+		if (files != null) {
+			for (File f : files)
+				f.delete();
+		}
+		dir.delete();
+	}
+
+	private static Appender<ILoggingEvent> nopAppender(LoggerContext context) {
+		NOPAppender<ILoggingEvent> appender = new NOPAppender<ILoggingEvent>();
+		appender.setContext(context);
+		appender.start();
+		return appender;
+	}
+
+	private static Appender<ILoggingEvent> asyncAppender(LoggerContext context, Appender<ILoggingEvent> target) {
+		AsyncAppender appender = new AsyncAppender();
+		appender.setContext(context);
+		appender.setQueueSize(256);
+		appender.addAppender(target);
+		appender.start();
+		return appender;
+	}
+
+	private static Appender<ILoggingEvent> mappedFileAppender(LoggerContext context, File file, String pattern) {
+		MappedFileAppender appender = new MappedFileAppender();
+		appender.setContext(context);
+		appender.setFile(file.getAbsolutePath());
+		appender.setMaxFileSize(FileSize.valueOf("2500KB"));
+		appender.setEncoder(encoder(context, pattern));
+		appender.start();
+		return appender;
+	}
+
+	static PatternLayoutEncoder encoder(LoggerContext context, String pattern) {
+		PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+		encoder.setContext(context);
+		encoder.setPattern(pattern);
+		encoder.start();
+		return encoder;
+	}
+
+	static EelfEncoder eelfEncoder(LoggerContext context, String schema) {
+		EelfEncoder encoder = new EelfEncoder();
+		encoder.setContext(context);
+		encoder.setSchema(schema);
+		encoder.start();
+		return encoder;
+	}
+
+	private static Appender<ILoggingEvent> fileAppender(LoggerContext context, File file,
+			Encoder<ILoggingEvent> encoder) {
+		FileAppender<ILoggingEvent> appender = new FileAppender<ILoggingEvent>();
+		appender.setContext(context);
+		appender.setFile(file.getAbsolutePath());
+		appender.setEncoder(encoder);
+		appender.start();
+		return appender;
+	}
+}
@@ -0,0 +1,96 @@
+
+/*-
+ * ============LICENSE_START==========================================
+ * OPENECOMP - DCAE
+ * ===================================================================
+ * Copyright (c) 2017 AT&T Intellectual Property. All rights reserved.
+ * ===================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END============================================
+ */
+	
+package org.openecomp.logger.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.openecomp.logger.EcompLogger;
+import org.openecomp.logger.MetricHistograms;
+import org.openecomp.logger.StatusCodeEnum;
+
+/**
+ * Cost of a metric event written to the metrics file with and without the latency histograms, and with the histograms
+ * replacing all but one in a hundred raw lines.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetricHistogramsBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class Sink {
+		@Param({ "off", "on", "sampled" })
+		public String histograms;
+
+		File dir;
+
+		@Setup(Level.Trial)
+		public void setUp() throws IOException {
+			dir = LoggingSinks.install(LoggingSinks.FILE);
+			MetricHistograms.setEnabled(!"off".equals(histograms));
+			MetricHistograms.setRawLineSampling("sampled".equals(histograms) ? 100 : 1);
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			MetricHistograms.setEnabled(false);
+			MetricHistograms.setRawLineSampling(1);
+			LoggingSinks.uninstall(dir);
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class Request {
+		EcompLogger logger;
+
+		@Setup(Level.Trial)
+		public void setUp(Sink sink) {
+			logger = EcompLogger.getEcompLogger();
+			EcompLogger.setLogContext("benchmark-request", "benchmark-service-instance");
+			EcompLogger.setServiceName("benchmark");
+		}
+	}
+
+	@Benchmark
+	public void metricEvent(Request r) {
+		r.logger.recordMetricEventStart("benchmark-target", "benchmark-operation");
+		r.logger.recordMetricEventEnd(StatusCodeEnum.COMPLETE);
+	}
+}
@@ -0,0 +1,113 @@
+
+/*-
+ * ============LICENSE_START==========================================
+ * OPENECOMP - DCAE
+ * ===================================================================
+ * Copyright (c) 2017 AT&T Intellectual Property. All rights reserved.
+ * ===================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END============================================
+ */
+	
+package org.openecomp.logger.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.openecomp.logger.EcompLogger;
+import org.openecomp.logger.PrometheusExporter;
+import org.openecomp.logger.StatusCodeEnum;
+
+/**
+ * Cost of counting a request with one downstream call for the Prometheus exporter, with the records themselves
+ * discarded so that the counting is what is measured. {@link #scrape()} is the work of the server per scrape, with the
+ * series of a few services and targets.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PrometheusExporterBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class Sink {
+		@Param({ "off", "on" })
+		public String exporter;
+
+		File dir;
+
+		@Setup(Level.Trial)
+		public void setUp() throws IOException {
+			dir = LoggingSinks.install(LoggingSinks.NOOP);
+			if ("on".equals(exporter))
+				PrometheusExporter.start("127.0.0.1", 0);
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			PrometheusExporter.stop();
+			PrometheusExporter.clear();
+			LoggingSinks.uninstall(dir);
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class Request {
+		EcompLogger logger;
+
+		@Setup(Level.Trial)
+		public void setUp(Sink sink) {
+			logger = EcompLogger.getEcompLogger();
+			EcompLogger.setLogContext("benchmark-request", "benchmark-service-instance");
+			// series for the scrape
+			for (int i = 0; i < 50; i++) {
+				EcompLogger.setServiceName("benchmark-" + i % 5);
+				logger.recordAuditEventStart();
+				logger.recordMetricEventStart("benchmark-target-" + i % 10, "benchmark-operation");
+				logger.recordMetricEventEnd(StatusCodeEnum.COMPLETE);
+				logger.recordAuditEventEnd(StatusCodeEnum.COMPLETE);
+			}
+			EcompLogger.setServiceName("benchmark");
+		}
+	}
+
+	@Benchmark
+	public void requestWithCall(Request r) {
+		EcompLogger.setServiceName("benchmark");
+		r.logger.recordAuditEventStart();
+		r.logger.recordMetricEventStart("benchmark-target", "benchmark-operation");
+		r.logger.recordMetricEventEnd(StatusCodeEnum.COMPLETE);
+		r.logger.recordAuditEventEnd(StatusCodeEnum.COMPLETE);
+	}
+
+	@Benchmark
+	public String scrape(Request r) {
+		return PrometheusExporter.scrape();
+	}
+}
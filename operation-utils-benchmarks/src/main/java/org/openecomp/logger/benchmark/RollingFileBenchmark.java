@@ -0,0 +1,148 @@
+
+/*-
+ * ============LICENSE_START==========================================
+ * OPENECOMP - DCAE
+ * ===================================================================
+ * Copyright (c) 2017 AT&T Intellectual Property. All rights reserved.
+ * ===================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END============================================
+ */
+	
+package org.openecomp.logger.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.rolling.FixedWindowRollingPolicy;
+import ch.qos.logback.core.rolling.RollingFileAppender;
+import ch.qos.logback.core.rolling.SizeBasedTriggeringPolicy;
+import ch.qos.logback.core.util.FileSize;
+
+import org.openecomp.logger.BackgroundRollingFileAppender;
+import org.openecomp.logger.EcompLogger;
+import org.openecomp.logger.StatusCodeEnum;
+
+/**
+ * Audit records written to a file zipped when rolled: the RollingFileAppender with the FixedWindowRollingPolicy of the
+ * shipped logback.xml, renaming the window and compressing while appends wait, against the
+ * BackgroundRollingFileAppender. Files are rolled at 256KB rather than 2500KB so that every iteration holds many
+ * rolls; the sampled times show them in the high percentiles.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RollingFileBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class Sink {
+		@Param({ "fixedWindow", "background" })
+		public String appender;
+
+		File dir;
+
+		@Setup(Level.Trial)
+		public void setUp() throws IOException {
+			dir = LoggingSinks.install(LoggingSinks.FILE);
+			LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+			String file = new File(dir, "rolling-audit.log").getAbsolutePath();
+			String pattern = new File(dir, "rolling-audit.%i.log.zip").getAbsolutePath();
+			Appender<ILoggingEvent> a = "background".equals(appender) ? background(context, file, pattern)
+					: fixedWindow(context, file, pattern);
+			Logger audit = context.getLogger("org.openecomp.audit");
+			audit.detachAndStopAllAppenders();
+			audit.addAppender(a);
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			LoggingSinks.uninstall(dir);
+		}
+
+		private static Appender<ILoggingEvent> fixedWindow(LoggerContext context, String file, String pattern) {
+			RollingFileAppender<ILoggingEvent> appender = new RollingFileAppender<ILoggingEvent>();
+			appender.setContext(context);
+			appender.setName("rolling-audit");
+			appender.setFile(file);
+			FixedWindowRollingPolicy rolling = new FixedWindowRollingPolicy();
+			rolling.setContext(context);
+			rolling.setParent(appender);
+			rolling.setFileNamePattern(pattern);
+			rolling.setMinIndex(1);
+			rolling.setMaxIndex(20);
+			rolling.start();
+			SizeBasedTriggeringPolicy<ILoggingEvent> triggering = new SizeBasedTriggeringPolicy<ILoggingEvent>();
+			triggering.setContext(context);
+			triggering.setMaxFileSize(FileSize.valueOf("256KB"));
+			triggering.start();
+			appender.setRollingPolicy(rolling);
+			appender.setTriggeringPolicy(triggering);
+			appender.setEncoder(LoggingSinks.encoder(context, LoggingSinks.AUDIT_PATTERN));
+			appender.start();
+			return appender;
+		}
+
+		private static Appender<ILoggingEvent> background(LoggerContext context, String file, String pattern) {
+			BackgroundRollingFileAppender appender = new BackgroundRollingFileAppender();
+			appender.setContext(context);
+			appender.setName("rolling-audit");
+			appender.setFile(file);
+			appender.setFileNamePattern(pattern);
+			appender.setMaxFileSize(FileSize.valueOf("256KB"));
+			appender.setMaxHistory(20);
+			appender.setEncoder(LoggingSinks.encoder(context, LoggingSinks.AUDIT_PATTERN));
+			appender.start();
+			return appender;
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class Request {
+		EcompLogger logger;
+
+		@Setup(Level.Trial)
+		public void setUp(Sink sink) {
+			logger = EcompLogger.getEcompLogger();
+			EcompLogger.setLogContext("benchmark-request", "benchmark-service-instance");
+			EcompLogger.setServiceName("benchmark");
+		}
+	}
+
+	@Benchmark
+	public void auditEvent(Request r) {
+		r.logger.recordAuditEventStart();
+		r.logger.recordAuditEventEnd(StatusCodeEnum.COMPLETE);
+	}
+}
@@ -0,0 +1,159 @@
+
+/*-
+ * ============LICENSE_START==========================================
+ * OPENECOMP - DCAE
+ * ===================================================================
+ * Copyright (c) 2017 AT&T Intellectual Property. All rights reserved.
+ * ===================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END============================================
+ */
+	
+package org.openecomp.logger.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.openecomp.logger.EcompLogger;
+import org.openecomp.logger.LogScope;
+import org.openecomp.logger.StatusCodeEnum;
+
+/**
+ * One request per virtual thread, a million of them per invocation: the time to run them all, and the heap each
+ * thread still holds once its request is done but before the thread ends. The scope parameter runs the requests
+ * without a LogScope (plain thread locals, as code not written for scopes does) or in a LogScope with either backend.
+ * 
+ * Needs Java 21 or later, and Java 25 for the SCOPED_VALUE backend. BenchmarkRunner leaves it out of its default run,
+ * start it on its own: java -jar benchmarks.jar VirtualThreadBenchmark
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class VirtualThreadBenchmark {
+
+	@Param({ "NONE", "THREAD_LOCAL", "SCOPED_VALUE" })
+	String scope;
+
+	@Param({ "1000000" })
+	int requests;
+
+	File dir;
+
+	EcompLogger logger;
+
+	long retainedBytes;
+
+	int invocations;
+
+	final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		if (!"NONE".equals(scope)) {
+			LogScope.Backend backend = LogScope.Backend.valueOf(scope);
+			LogScope.setBackend(backend);
+			if (LogScope.getBackend() != backend)
+				throw new IllegalStateException(scope + " is not supported on " + System.getProperty("java.version"));
+		}
+		newExecutor().shutdown();
+		dir = LoggingSinks.install(LoggingSinks.NOOP);
+		logger = EcompLogger.getEcompLogger();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		LoggingSinks.uninstall(dir);
+		System.out.println();
+		System.out.println("retained per thread: " + retainedBytes / invocations / requests + " bytes");
+	}
+
+	@Benchmark
+	public void oneRequestPerThread() throws Exception {
+		final CountDownLatch done = new CountDownLatch(requests);
+		final CountDownLatch release = new CountDownLatch(1);
+		final Runnable request = new Runnable() {
+			@Override
+			public void run() {
+				EcompLogger.setLogContext(Thread.currentThread().toString(), "benchmark-service-instance");
+				logger.recordAuditEventStart();
+				logger.recordMetricEventStart("benchmark-target", "benchmark-operation");
+				logger.recordMetricEventEnd(StatusCodeEnum.COMPLETE);
+				logger.recordAuditEventEnd(StatusCodeEnum.COMPLETE);
+			}
+		};
+		final boolean scoped = !"NONE".equals(scope);
+		long before = usedHeap();
+		ExecutorService executor = newExecutor();
+		for (int i = 0; i < requests; i++) {
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					if (scoped)
+						LogScope.run(request);
+					else
+						request.run();
+					// the thread outlives its request, with whatever logging state it still holds
+					done.countDown();
+					try {
+						release.await();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+			});
+		}
+		done.await();
+		retainedBytes += usedHeap() - before;
+		invocations++;
+		release.countDown();
+		executor.shutdown();
+		executor.awaitTermination(1, TimeUnit.MINUTES);
+	}
+
+	private long usedHeap() {
+		System.gc();
+		return memory.getHeapMemoryUsage().getUsed();
+	}
+
+	// Executors.newVirtualThreadPerTaskExecutor(), the benchmarks are compiled for Java 8
+	private static ExecutorService newExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("virtual threads need Java 21", e);
+		}
+	}
+}
@@ -2,22 +2,50 @@
 package org.openecomp.logger;
 
 import com.att.eelf.i18n.EELFResourceManager;
-import org.openecomp.logger.EcompMessageEnum;
-
-public enum GenericMessagesMessageEnum implements EcompMessageEnum {
-
-  ECOMP_GENERAL_EXCEPTION,
-  ECOMP_GENERAL_ERROR,
-  ECOMP_GENERAL_INFO,
-  ECOMP_GENERAL_WARNING,
-  ECOMP_REMOTE_CALL_OK,
-  ECOMP_REQUEST_OK,
-  ECOMP_REMOTE_CALL_ERROR,
-  ECOMP_REQUEST_ERROR,
-  ECOMP_MISSING_REQUESTID,
-  ECOMP_LOGGER_NON_EMPTY_STACK,
-  ECOMP_LOGGER_POP_ON_EMPTY_STACK,
-  ECOMP_LOGGER_TOP_ON_EMPTY_STACK;
+import org.openecomp.logger.EcompMessageDescriptor;
+import org.openecomp.logger.LogCategoryEnum;
+
+public enum GenericMessagesMessageEnum implements EcompMessageDescriptor {
+
+  ECOMP_GENERAL_EXCEPTION("ECOMP-GENERAL-EXCEPTION-5404W", "General exception", LogCategoryEnum.WARN),
+  ECOMP_GENERAL_ERROR("ECOMP-GENERAL-ERROR-5403E", "General error", LogCategoryEnum.ERROR),
+  ECOMP_GENERAL_INFO("ECOMP-GENERAL-INFO-5401I", "General info", LogCategoryEnum.INFO),
+  ECOMP_GENERAL_WARNING("ECOMP-GENERAL-WARNING-5402W", "General warning", LogCategoryEnum.WARN),
+  ECOMP_REMOTE_CALL_OK("ECOMP-REMOTE-CALL-OK-2000I", "Remote Call Succeess", LogCategoryEnum.INFO),
+  ECOMP_REQUEST_OK("ECOMP-REQUEST-OK-2000I", "Request Success", LogCategoryEnum.INFO),
+  ECOMP_REMOTE_CALL_ERROR("ECOMP-REMOTE-CALL-ERROR-4000W", "Remote Call Failed", LogCategoryEnum.WARN),
+  ECOMP_REQUEST_ERROR("ECOMP-REQUEST-ERROR-4000I", "Request Failed", LogCategoryEnum.INFO),
+  ECOMP_MISSING_REQUESTID("ECOMP-MISSING-REQUESTID-3401W", "Got a north bound request that was missing a request ID.", LogCategoryEnum.WARN),
+  ECOMP_LOGGER_NON_EMPTY_STACK("ECOMP-LOGGER-NON-EMPTY-STACK-4401W", "Component recorded an Audit End with an non empty stack", LogCategoryEnum.WARN),
+  ECOMP_LOGGER_POP_ON_EMPTY_STACK("ECOMP-LOGGER-POP-ON-EMPTY-STACK-4402W", "Component performed a Pop on empty stack", LogCategoryEnum.WARN),
+  ECOMP_LOGGER_TOP_ON_EMPTY_STACK("ECOMP-LOGGER-TOP-ON-EMPTY-STACK-4403W", "Component performed a Top on empty stack", LogCategoryEnum.WARN),
+  ECOMP_LOGGER_DEEP_STACK("ECOMP-LOGGER-DEEP-STACK-4404W", "Component nested more stopwatches than expected", LogCategoryEnum.WARN),
+  ECOMP_LOGGER_EVENTS_SUPPRESSED("ECOMP-LOGGER-EVENTS-SUPPRESSED-4405W", "Events were suppressed by the configured event limits", LogCategoryEnum.WARN);
+
+	private final String identifier;
+	private final String description;
+	private final LogCategoryEnum category;
+
+	private GenericMessagesMessageEnum(String identifier, String description, LogCategoryEnum category) {
+		this.identifier = identifier;
+		this.description = description;
+		this.category = category;
+	}
+
+	@Override
+	public String getIdentifier() {
+		return identifier;
+	}
+
+	@Override
+	public String getDescription() {
+		return description;
+	}
+
+	@Override
+	public LogCategoryEnum getCategory() {
+		return category;
+	}
 
 	static {
 		EELFResourceManager.loadMessageBundle("org/openecomp/logger/GenericMessages");
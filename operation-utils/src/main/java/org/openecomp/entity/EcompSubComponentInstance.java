@@ -21,49 +21,141 @@
 	
 package org.openecomp.entity;
 
-import java.net.InetAddress;
-import java.net.UnknownHostException;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.openecomp.ncomp.utils.SecurityUtils;
 
+/**
+ * Identity of this component instance for the InstanceUUID, ServerIPAddress and ServerFQDN log fields, kept as an
+ * immutable snapshot: log events only read it and never wait on a DNS lookup. The host is resolved on a daemon thread
+ * when the class is first used, the address and name are empty until that is done. {@link #refresh()} and
+ * {@link #refreshInBackground()} resolve it again.
+ */
 public class EcompSubComponentInstance {
 	private static final Logger logger = Logger.getLogger(EcompSubComponentInstance.class.getName());
 
-	static String uuid = "???";
+	/**
+	 * An immutable snapshot of the instance identity
+	 */
+	public static final class Identity {
+		private final String uuid, serverIP, serverName;
+
+		Identity(String uuid, String serverIP, String serverName) {
+			this.uuid = uuid;
+			this.serverIP = serverIP;
+			this.serverName = serverName;
+		}
+
+		public String getUuid() {
+			return uuid;
+		}
+
+		public String getServerIP() {
+			return serverIP;
+		}
+
+		public String getServerName() {
+			return serverName;
+		}
+
+		boolean resolved() {
+			return !serverIP.isEmpty() && !serverName.isEmpty();
+		}
+
+		// a value that could not be resolved keeps the current one
+		Identity withHost(String ip, String name) {
+			return new Identity(uuid, ip == null || ip.isEmpty() ? serverIP : ip,
+					name == null || name.isEmpty() ? serverName : name);
+		}
+	}
+
+	private static final AtomicReference<Identity> identity = new AtomicReference<Identity>(
+			new Identity(UUID.randomUUID().toString(), "", ""));
+
+	private static final AtomicBoolean refreshing = new AtomicBoolean();
+
+	static {
+		refreshInBackground();
+	}
+
+	public static Identity getIdentity() {
+		return identity.get();
+	}
+
 	public static String getServerIP() {
-		initialize();
-		return serverIP;
+		return identity.get().serverIP;
 	}
 
 	public static String getServerName() {
-		initialize();
-		return serverName;
+		return identity.get().serverName;
 	}
 
-	private static String serverIP, serverName;
-
 	public static String getUuid() {
-		return uuid;
+		return identity.get().uuid;
 	}
 
+	/**
+	 * Set the instance id, resolving the host in the background as well if that failed so far
+	 */
 	public static void initialize(String instanceID) {
-		uuid = instanceID;
-		if (serverIP == null || serverName == null || ("").equals(serverIP) || ("").equals(serverName)) {
-			try {
-				serverIP = SecurityUtils.getHostAddress();
-				serverName = SecurityUtils.getCanonicalHostName();
-			} catch (Exception e) {
-				logger.log(Level.SEVERE, "Could not get local hostname", e);
-				serverIP = "";
-				serverName = "";
-			}
-		}
+		Identity current;
+		do {
+			current = identity.get();
+		} while (!identity.compareAndSet(current, new Identity(instanceID, current.serverIP, current.serverName)));
+		if (!current.resolved())
+			refreshInBackground();
 	}
 
+	/**
+	 * Start over with a new random instance id
+	 */
 	public static void initialize() {
 		initialize(UUID.randomUUID().toString());
 	}
+
+	/**
+	 * Resolve the host address and name again, on the calling thread. A value that can't be resolved is kept.
+	 */
+	public static void refresh() {
+		String[] host = lookup();
+		Identity current;
+		do {
+			current = identity.get();
+		} while (!identity.compareAndSet(current, current.withHost(host[0], host[1])));
+	}
+
+	/**
+	 * Resolve the host address and name again on a daemon thread, unless that is already under way. Log events keep
+	 * the current values until it is done.
+	 */
+	public static void refreshInBackground() {
+		if (!refreshing.compareAndSet(false, true))
+			return;
+		Thread t = new Thread("EcompSubComponentInstance-refresh") {
+			@Override
+			public void run() {
+				try {
+					refresh();
+				} finally {
+					refreshing.set(false);
+				}
+			}
+		};
+		t.setDaemon(true);
+		t.start();
+	}
+
+	// the host address and name, null when they can't be resolved
+	private static String[] lookup() {
+		try {
+			return new String[] { SecurityUtils.getHostAddress(), SecurityUtils.getCanonicalHostName() };
+		} catch (Exception e) {
+			logger.log(Level.SEVERE, "Could not get local hostname", e);
+			return new String[2];
+		}
+	}
 }
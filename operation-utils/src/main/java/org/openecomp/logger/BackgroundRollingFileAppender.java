@@ -0,0 +1,586 @@
+
+/*-
+ * ============LICENSE_START==========================================
+ * OPENECOMP - DCAE
+ * ===================================================================
+ * Copyright (c) 2017 AT&T Intellectual Property. All rights reserved.
+ * ===================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END============================================
+ */
+	
+package org.openecomp.logger;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.text.DateFormat;
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.encoder.Encoder;
+import ch.qos.logback.core.status.ErrorStatus;
+import ch.qos.logback.core.util.FileSize;
+
+/**
+ * Size based rolling file appender that never makes logging threads wait for the files it rolled. A replacement for
+ * the RollingFileAppender with a FixedWindowRollingPolicy of logback.xml:
+ * 
+ * <pre>
+ * &lt;appender name="EELFAudit" class="org.openecomp.logger.BackgroundRollingFileAppender"&gt;
+ *     &lt;file&gt;${logDirectory}/${auditLogName}.log&lt;/file&gt;
+ *     &lt;fileNamePattern&gt;${logDirectory}/${auditLogName}.%i.log.zip&lt;/fileNamePattern&gt;
+ *     &lt;maxFileSize&gt;2500KB&lt;/maxFileSize&gt;
+ *     &lt;maxHistory&gt;20&lt;/maxHistory&gt;
+ *     &lt;totalSizeCap&gt;50MB&lt;/totalSizeCap&gt;
+ *     &lt;encoder&gt;
+ *         &lt;pattern&gt;${auditLoggerPattern}&lt;/pattern&gt;
+ *     &lt;/encoder&gt;
+ * &lt;/appender&gt;
+ * </pre>
+ * 
+ * A roll is one rename of the file, to a name that is not in use, and the opening of a new file. Rolled files are not
+ * renamed again: %i in fileNamePattern is a sequence number, the highest is the newest, continuing after the files
+ * found at start. With %d{format} (yyyyMMdd-HHmmss.SSS by default, a time zone may follow the format after a comma)
+ * the files are named after the time of the roll instead.
+ * 
+ * A fileNamePattern ending with .zip or .gz has the rolled files compressed, and the oldest rolled files are deleted
+ * beyond maxHistory files (20 by default, 0 for no limit) or totalSizeCap bytes (no limit by default). Both are done
+ * by a pool of background threads shared by all the appenders, of org.openecomp.logger.compressionThreads threads (1
+ * by default). Files left uncompressed by a previous run are compressed at start, and stop waits up to 30 seconds for
+ * the compressions still running.
+ */
+public class BackgroundRollingFileAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
+
+	public static final String COMPRESSION_THREADS_PROPERTY = "org.openecomp.logger.compressionThreads";
+
+	private static final long DEFAULT_MAX_FILE_SIZE = 2500 * FileSize.KB_COEFFICIENT;
+
+	private static final String DEFAULT_DATE_FORMAT = "yyyyMMdd-HHmmss.SSS";
+
+	// as long as the time based rolling policies of logback wait for their compression
+	private static final long STOP_WAIT_SECONDS = 30;
+
+	private static final String TEMPORARY = ".tmp";
+
+	private static ExecutorService compressors;
+
+	private final ReentrantLock lock = new ReentrantLock();
+
+	// background jobs of this appender that were not seen done yet
+	private final Queue<Future<?>> jobs = new ConcurrentLinkedQueue<Future<?>>();
+
+	// retention of one job at a time
+	private final Object retention = new Object();
+
+	private String file;
+
+	private String fileNamePattern;
+
+	// volatile, see update
+	private volatile long maxFileSize = DEFAULT_MAX_FILE_SIZE;
+
+	private volatile int maxHistory = 20;
+
+	private volatile long totalSizeCap;
+
+	private volatile Encoder<ILoggingEvent> encoder;
+
+	// fileNamePattern taken apart at start, the rolled files are directory/prefix + index or date + suffix
+	private File directory;
+
+	private String prefix;
+
+	private String suffix;
+
+	// ".zip", ".gz" or none
+	private String compression;
+
+	// null for sequence numbers
+	private SimpleDateFormat dateFormat;
+
+	private Pattern rolledName;
+
+	private long nextIndex;
+
+	private FileOutputStream out;
+
+	private long size;
+
+	/**
+	 * A rolled file found in the directory
+	 */
+	private static final class Rolled implements Comparable<Rolled> {
+		final File file;
+		final long index;
+		final long modified;
+		final long length;
+
+		Rolled(File file, long index) {
+			this.file = file;
+			this.index = index;
+			modified = file.lastModified();
+			length = file.length();
+		}
+
+		// oldest first. By time, as the files left by FixedWindowRollingPolicy count down from the newest, the index
+		// only orders files of the same time.
+		@Override
+		public int compareTo(Rolled o) {
+			if (modified != o.modified)
+				return modified < o.modified ? -1 : 1;
+			if (index != o.index)
+				return index < o.index ? -1 : 1;
+			return file.getName().compareTo(o.file.getName());
+		}
+	}
+
+	public void setFile(String file) {
+		this.file = file;
+	}
+
+	public String getFile() {
+		return file;
+	}
+
+	/**
+	 * @param fileNamePattern
+	 *            name of the rolled files, with %i or %d{format} in the file name. Defaults to the file name with the
+	 *            index before its extension, zipped.
+	 */
+	public void setFileNamePattern(String fileNamePattern) {
+		this.fileNamePattern = fileNamePattern;
+	}
+
+	/**
+	 * @param maxFileSize
+	 *            size at which the file is rolled, 0 to never roll it
+	 */
+	public void setMaxFileSize(FileSize maxFileSize) {
+		this.maxFileSize = maxFileSize.getSize();
+	}
+
+	/**
+	 * @param maxHistory
+	 *            number of rolled files kept, 0 to keep them all
+	 */
+	public void setMaxHistory(int maxHistory) {
+		this.maxHistory = maxHistory;
+	}
+
+	/**
+	 * @param totalSizeCap
+	 *            total size of the rolled files kept
+	 */
+	public void setTotalSizeCap(FileSize totalSizeCap) {
+		this.totalSizeCap = totalSizeCap.getSize();
+	}
+
+	public void setEncoder(Encoder<ILoggingEvent> encoder) {
+		this.encoder = encoder;
+	}
+
+	public Encoder<ILoggingEvent> getEncoder() {
+		return encoder;
+	}
+
+	/**
+	 * Change the limits and the encoder of the running appender, which keeps its file. Records already encoded are
+	 * written as they are, the new limits apply from the next roll. The previous encoder is left running for the
+	 * records being encoded with it.
+	 */
+	void update(FileSize maxFileSize, int maxHistory, FileSize totalSizeCap, Encoder<ILoggingEvent> encoder) {
+		this.maxFileSize = maxFileSize.getSize();
+		this.maxHistory = maxHistory;
+		this.totalSizeCap = totalSizeCap.getSize();
+		this.encoder = encoder;
+	}
+
+	@Override
+	public void start() {
+		int errors = 0;
+		if (file == null) {
+			addError("No file set for the appender named [" + name + "].");
+			errors++;
+		}
+		if (encoder == null) {
+			addError("No encoder set for the appender named [" + name + "].");
+			errors++;
+		}
+		if (file != null && !parsePattern())
+			errors++;
+		if (errors > 0)
+			return;
+		List<Rolled> uncompressed = new ArrayList<Rolled>();
+		List<Rolled> rolled = scan(uncompressed);
+		rolled.addAll(uncompressed);
+		nextIndex = 1;
+		for (Rolled r : rolled) {
+			if (r.index >= nextIndex)
+				nextIndex = r.index + 1;
+		}
+		for (Rolled r : uncompressed)
+			submit(r.file);
+		if (uncompressed.isEmpty())
+			submit(null);
+		try {
+			File f = new File(file);
+			if (f.getParentFile() != null)
+				f.getParentFile().mkdirs();
+			out = new FileOutputStream(f, true);
+			size = f.length();
+		} catch (IOException e) {
+			addStatus(new ErrorStatus("Failed to open [" + file + "].", this, e));
+			return;
+		}
+		super.start();
+	}
+
+	/**
+	 * Waits for the rolled files to be compressed before returning
+	 */
+	@Override
+	public void stop() {
+		if (!isStarted())
+			return;
+		super.stop();
+		lock.lock();
+		try {
+			out.close();
+		} catch (IOException e) {
+			addStatus(new ErrorStatus("Failed to close [" + file + "].", this, e));
+		} finally {
+			out = null;
+			lock.unlock();
+		}
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(STOP_WAIT_SECONDS);
+		Future<?> job;
+		while ((job = jobs.poll()) != null) {
+			try {
+				job.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+			} catch (TimeoutException e) {
+				addWarn("Rolled files of the appender named [" + name + "] are still being compressed.");
+				break;
+			} catch (ExecutionException e) {
+				addStatus(new ErrorStatus("Failed to archive rolled files of [" + file + "].", this, e.getCause()));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+		}
+	}
+
+	@Override
+	protected void append(ILoggingEvent event) {
+		byte[] record = encoder.encode(event);
+		lock.lock();
+		try {
+			// stopped meanwhile
+			if (out == null)
+				return;
+			if (maxFileSize > 0 && size > 0 && size + record.length > maxFileSize)
+				roll();
+			out.write(record);
+			size += record.length;
+		} catch (IOException e) {
+			// same as OutputStreamAppender, stop rather than report every record
+			started = false;
+			addStatus(new ErrorStatus("IO failure in appender", this, e));
+			// stop() does nothing once started is false
+			if (out != null) {
+				try {
+					out.close();
+				} catch (IOException ignored) {
+					// already failing
+				}
+				out = null;
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void roll() throws IOException {
+		out.close();
+		out = null;
+		File rolled = nextName();
+		File f = new File(file);
+		if (f.renameTo(rolled)) {
+			submit(rolled);
+		} else {
+			// keep appending, and try again at the next maxFileSize
+			addWarn("Failed to rename [" + file + "] to [" + rolled + "].");
+		}
+		out = new FileOutputStream(f, true);
+		size = 0;
+	}
+
+	private File nextName() {
+		File f;
+		if (dateFormat == null) {
+			do
+				f = new File(directory, prefix + nextIndex++ + suffix);
+			while (taken(f));
+			return f;
+		}
+		String date = dateFormat.format(new Date());
+		f = new File(directory, prefix + date + suffix);
+		for (int n = 1; taken(f); n++)
+			f = new File(directory, prefix + date + "-" + n + suffix);
+		return f;
+	}
+
+	private boolean taken(File f) {
+		return f.exists() || new File(f.getPath() + compression).exists();
+	}
+
+	/**
+	 * Compresses a rolled file, if the files are compressed, and applies the retention in the background
+	 * 
+	 * @param rolled
+	 *            null for the retention only
+	 */
+	private void submit(final File rolled) {
+		final boolean compress = rolled != null && !compression.isEmpty();
+		if (!compress && maxHistory <= 0 && totalSizeCap <= 0)
+			return;
+		for (Iterator<Future<?>> it = jobs.iterator(); it.hasNext();) {
+			if (it.next().isDone())
+				it.remove();
+		}
+		jobs.add(compressors().submit(new Runnable() {
+			@Override
+			public void run() {
+				if (compress)
+					compress(rolled);
+				retain();
+			}
+		}));
+	}
+
+	private void compress(File rolled) {
+		File compressed = new File(rolled.getPath() + compression);
+		File temporary = new File(compressed.getPath() + TEMPORARY);
+		byte[] buffer = new byte[64 * 1024];
+		try {
+			InputStream in = new FileInputStream(rolled);
+			try {
+				OutputStream os = new FileOutputStream(temporary);
+				DeflaterOutputStream z = null;
+				try {
+					if (".zip".equals(compression)) {
+						ZipOutputStream zip = new ZipOutputStream(os);
+						z = zip;
+						zip.putNextEntry(new ZipEntry(rolled.getName()));
+					} else {
+						z = new GZIPOutputStream(os, buffer.length);
+					}
+					int n;
+					while ((n = in.read(buffer)) >= 0)
+						z.write(buffer, 0, n);
+					z.finish();
+				} finally {
+					// releases the native memory of the deflater, and closes os
+					if (z != null)
+						z.close();
+					else
+						os.close();
+				}
+			} finally {
+				in.close();
+			}
+		} catch (IOException e) {
+			addStatus(new ErrorStatus("Failed to compress [" + rolled + "].", this, e));
+			temporary.delete();
+			return;
+		}
+		// keeps the order of the rolled files
+		temporary.setLastModified(rolled.lastModified());
+		if (!temporary.renameTo(compressed)) {
+			addWarn("Failed to rename [" + temporary + "].");
+			temporary.delete();
+		} else if (!rolled.delete()) {
+			addWarn("Failed to delete [" + rolled + "].");
+		}
+	}
+
+	private void retain() {
+		if (maxHistory <= 0 && totalSizeCap <= 0)
+			return;
+		synchronized (retention) {
+			List<Rolled> rolled = scan(null);
+			Collections.sort(rolled);
+			int count = rolled.size();
+			long total = 0;
+			for (Rolled r : rolled)
+				total += r.length;
+			for (Rolled r : rolled) {
+				if ((maxHistory <= 0 || count <= maxHistory) && (totalSizeCap <= 0 || total <= totalSizeCap))
+					break;
+				if (!r.file.delete())
+					addWarn("Failed to delete [" + r.file + "].");
+				count--;
+				total -= r.length;
+			}
+		}
+	}
+
+	/**
+	 * @param uncompressed
+	 *            null while running, at start gets the rolled files that are still to be compressed, and the left over
+	 *            temporary files are deleted
+	 * @return the rolled files that are done with
+	 */
+	private List<Rolled> scan(List<Rolled> uncompressed) {
+		List<Rolled> rolled = new ArrayList<Rolled>();
+		File[] files = directory.listFiles();
+		if (files == null)
+			return rolled;
+		File active = new File(file).getAbsoluteFile();
+		// nextName formats with the one of the appender under its lock
+		DateFormat format = dateFormat != null ? (DateFormat) dateFormat.clone() : null;
+		for (File f : files) {
+			Matcher m = rolledName.matcher(f.getName());
+			if (!m.matches() || f.equals(active))
+				continue;
+			long index = 0;
+			if (format == null) {
+				try {
+					index = Long.parseLong(m.group(1));
+				} catch (NumberFormatException e) {
+					continue;
+				}
+			} else {
+				// the -n of the files rolled within the same date
+				ParsePosition p = new ParsePosition(0);
+				String name = m.group(1);
+				if (format.parse(name, p) != null && name.substring(p.getIndex()).matches("-\\d{1,18}"))
+					index = Long.parseLong(name.substring(p.getIndex() + 1));
+			}
+			if (m.group(3) != null) {
+				// being compressed, or left over by a previous run
+				if (uncompressed != null)
+					f.delete();
+			} else if (!compression.isEmpty() && m.group(2) == null) {
+				if (uncompressed != null)
+					uncompressed.add(new Rolled(f, index));
+			} else {
+				rolled.add(new Rolled(f, index));
+			}
+		}
+		return rolled;
+	}
+
+	/**
+	 * @return false if the fileNamePattern is unusable, the error was reported
+	 */
+	private boolean parsePattern() {
+		String pattern = fileNamePattern != null ? fileNamePattern.trim() : FixedWindow.defaultPattern(file) + ".zip";
+		compression = pattern.endsWith(".zip") ? ".zip" : pattern.endsWith(".gz") ? ".gz" : "";
+		File rolled = new File(pattern.substring(0, pattern.length() - compression.length())).getAbsoluteFile();
+		directory = rolled.getParentFile();
+		String fileName = rolled.getName();
+		if (directory.getPath().contains("%")) {
+			addError("fileNamePattern of the appender named [" + name + "] has a conversion in its directory.");
+			return false;
+		}
+		int i = fileName.indexOf("%i");
+		int d = fileName.indexOf("%d");
+		if (i >= 0) {
+			prefix = fileName.substring(0, i);
+			suffix = fileName.substring(i + 2);
+			dateFormat = null;
+		} else if (d >= 0) {
+			int end = d + 2;
+			String format = DEFAULT_DATE_FORMAT;
+			TimeZone zone = TimeZone.getDefault();
+			if (fileName.startsWith("{", end)) {
+				int close = fileName.indexOf('}', end);
+				if (close < 0) {
+					addError("fileNamePattern of the appender named [" + name + "] has no closing brace.");
+					return false;
+				}
+				String option = fileName.substring(end + 1, close);
+				int comma = option.lastIndexOf(',');
+				if (comma >= 0) {
+					zone = TimeZone.getTimeZone(option.substring(comma + 1).trim());
+					option = option.substring(0, comma);
+				}
+				if (!option.trim().isEmpty())
+					format = option.trim();
+				end = close + 1;
+			}
+			prefix = fileName.substring(0, d);
+			suffix = fileName.substring(end);
+			try {
+				dateFormat = new SimpleDateFormat(format);
+			} catch (IllegalArgumentException e) {
+				addError("Invalid date format in the fileNamePattern of the appender named [" + name + "].", e);
+				return false;
+			}
+			dateFormat.setTimeZone(zone);
+		} else {
+			addError("fileNamePattern of the appender named [" + name + "] has neither %i nor %d.");
+			return false;
+		}
+		rolledName = Pattern.compile(Pattern.quote(prefix) + (dateFormat == null ? "(\\d+)" : "(.+?)")
+				+ Pattern.quote(suffix) + "(" + Pattern.quote(compression) + ")?(" + Pattern.quote(TEMPORARY) + ")?");
+		return true;
+	}
+
+	private static synchronized ExecutorService compressors() {
+		if (compressors == null) {
+			final AtomicInteger count = new AtomicInteger();
+			compressors = Executors.newFixedThreadPool(Math.max(1, Integer.getInteger(COMPRESSION_THREADS_PROPERTY, 1)),
+					new ThreadFactory() {
+						@Override
+						public Thread newThread(Runnable r) {
+							Thread t = new Thread(r, "ecomp-logger-compress-" + count.incrementAndGet());
+							t.setDaemon(true);
+							// leaves the cores to the application
+							t.setPriority(Thread.MIN_PRIORITY);
+							return t;
+						}
+					});
+		}
+		return compressors;
+	}
+}
@@ -0,0 +1,167 @@
+
+/*-
+ * ============LICENSE_START==========================================
+ * OPENECOMP - DCAE
+ * ===================================================================
+ * Copyright (c) 2017 AT&T Intellectual Property. All rights reserved.
+ * ===================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END============================================
+ */
+	
+package org.openecomp.logger;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Finds the code location ("class@method:line") that called into the EcompLogger, for the ClassName MDC field.
+ * 
+ * In the default {@link Mode#BOUNDED} mode only the frames up to the first caller frame are looked at, and the
+ * formatted location is cached per call site. {@link Mode#FULL_STACK} is the original behaviour, a complete
+ * Thread.getStackTrace() per event. {@link Mode#OFF} never records the location.
+ * 
+ * The mode can be selected with the org.openecomp.logger.callerLocation system property.
+ */
+public final class CallerLocation {
+
+	public enum Mode {
+		BOUNDED, FULL_STACK, OFF
+	}
+
+	public static final String MODE_PROPERTY = "org.openecomp.logger.callerLocation";
+
+	// call sites are a fixed set in a given code base, but don't let a misbehaving caller grow the cache unbounded
+	private static final int MAX_CACHED_CALL_SITES = 4096;
+
+	private static final ConcurrentMap<StackTraceElement, String> callSites = new ConcurrentHashMap<StackTraceElement, String>();
+
+	private static volatile Mode mode = initialMode();
+
+	// Java 7/8 expose single stack frames of a Throwable without building the whole StackTraceElement array
+	private static final Object javaLangAccess;
+	private static final Method getStackTraceDepth;
+	private static final Method getStackTraceElement;
+
+	static {
+		Object jla = null;
+		Method depth = null, element = null;
+		try {
+			jla = Class.forName("sun.misc.SharedSecrets").getMethod("getJavaLangAccess").invoke(null);
+			Class<?> c = Class.forName("sun.misc.JavaLangAccess");
+			depth = c.getMethod("getStackTraceDepth", Throwable.class);
+			element = c.getMethod("getStackTraceElement", Throwable.class, int.class);
+		} catch (Throwable t) {
+			jla = null;
+		}
+		javaLangAccess = jla;
+		getStackTraceDepth = depth;
+		getStackTraceElement = element;
+	}
+
+	private CallerLocation() {
+	}
+
+	public static Mode getMode() {
+		return mode;
+	}
+
+	public static void setMode(Mode m) {
+		mode = m == null ? Mode.BOUNDED : m;
+	}
+
+	/**
+	 * @return the location of the first frame outside the logger classes, or null if there is none or the location is
+	 *         turned off
+	 */
+	static String find() {
+		switch (mode) {
+		case OFF:
+			return null;
+		case FULL_STACK:
+			return fullStack();
+		default:
+			return bounded();
+		}
+	}
+
+	private static String fullStack() {
+		for (StackTraceElement x : Thread.currentThread().getStackTrace()) {
+			if (x.getClassName().equals("java.lang.Thread") || isLoggerFrame(x))
+				continue;
+			return format(x);
+		}
+		return null;
+	}
+
+	private static String bounded() {
+		Throwable t = new Throwable();
+		StackTraceElement caller = null;
+		if (javaLangAccess != null) {
+			try {
+				int depth = (Integer) getStackTraceDepth.invoke(javaLangAccess, t);
+				for (int i = 0; i < depth; i++) {
+					StackTraceElement x = (StackTraceElement) getStackTraceElement.invoke(javaLangAccess, t, i);
+					if (!isLoggerFrame(x)) {
+						caller = x;
+						break;
+					}
+				}
+			} catch (Exception e) {
+				caller = firstCaller(t.getStackTrace());
+			}
+		} else {
+			caller = firstCaller(t.getStackTrace());
+		}
+		if (caller == null)
+			return null;
+		String location = callSites.get(caller);
+		if (location == null) {
+			location = format(caller);
+			if (callSites.size() < MAX_CACHED_CALL_SITES)
+				callSites.putIfAbsent(caller, location);
+		}
+		return location;
+	}
+
+	private static StackTraceElement firstCaller(StackTraceElement[] l) {
+		for (StackTraceElement x : l) {
+			if (!isLoggerFrame(x))
+				return x;
+		}
+		return null;
+	}
+
+	private static boolean isLoggerFrame(StackTraceElement x) {
+		String c = x.getClassName();
+		return c.equals("org.openecomp.logger.EcompLogger") || c.equals("org.openecomp.logger.Stopwatch")
+				|| c.equals("org.openecomp.logger.CallerLocation");
+	}
+
+	private static String format(StackTraceElement x) {
+		return x.getClassName() + "@" + x.getMethodName() + ":" + x.getLineNumber();
+	}
+
+	private static Mode initialMode() {
+		String m = System.getProperty(MODE_PROPERTY);
+		if (m != null) {
+			try {
+				return Mode.valueOf(m.trim().toUpperCase());
+			} catch (IllegalArgumentException e) {
+				// fall through to the default
+			}
+		}
+		return Mode.BOUNDED;
+	}
+}
@@ -0,0 +1,217 @@
+
+/*-
+ * ============LICENSE_START==========================================
+ * OPENECOMP - DCAE
+ * ===================================================================
+ * Copyright (c) 2017 AT&T Intellectual Property. All rights reserved.
+ * ===================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END============================================
+ */
+	
+package org.openecomp.logger;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Executor decorators that run every task in the logging state ({@link LogContextSnapshot}) of the thread that
+ * submitted it, and give the worker its own state back afterwards. The state is captured when the task is submitted.
+ * 
+ * Works for anything that takes an Executor, e.g. CompletableFuture.supplyAsync(supplier,
+ * ContextExecutors.wrap(pool)). Tasks a ForkJoinTask forks from inside the pool are not submitted through the
+ * decorator and need {@link LogContextSnapshot#wrap(Runnable)}.
+ */
+public final class ContextExecutors {
+
+	private ContextExecutors() {
+	}
+
+	public static Executor wrap(Executor executor) {
+		if (executor instanceof ScheduledExecutorService)
+			return wrap((ScheduledExecutorService) executor);
+		if (executor instanceof ExecutorService)
+			return wrap((ExecutorService) executor);
+		if (executor instanceof ContextExecutor)
+			return executor;
+		return new ContextExecutor(executor);
+	}
+
+	public static ExecutorService wrap(ExecutorService executor) {
+		if (executor instanceof ScheduledExecutorService)
+			return wrap((ScheduledExecutorService) executor);
+		if (executor instanceof ContextExecutorService)
+			return executor;
+		return new ContextExecutorService(executor);
+	}
+
+	public static ScheduledExecutorService wrap(ScheduledExecutorService executor) {
+		if (executor instanceof ContextScheduledExecutorService)
+			return executor;
+		return new ContextScheduledExecutorService(executor);
+	}
+
+	/**
+	 * @return the task, running in the logging state of the calling thread
+	 */
+	public static Runnable wrap(Runnable task) {
+		return LogContextSnapshot.capture().wrap(task);
+	}
+
+	/**
+	 * @return the task, running in the logging state of the calling thread
+	 */
+	public static <V> Callable<V> wrap(Callable<V> task) {
+		return LogContextSnapshot.capture().wrap(task);
+	}
+
+	private static <V> List<Callable<V>> wrapAll(Collection<? extends Callable<V>> tasks) {
+		// one snapshot serves all of them, each attach gets its own copy of the watches
+		LogContextSnapshot snapshot = LogContextSnapshot.capture();
+		List<Callable<V>> wrapped = new ArrayList<Callable<V>>(tasks.size());
+		for (Callable<V> task : tasks)
+			wrapped.add(snapshot.wrap(task));
+		return wrapped;
+	}
+
+	private static class ContextExecutor implements Executor {
+		private final Executor executor;
+
+		ContextExecutor(Executor executor) {
+			this.executor = executor;
+		}
+
+		@Override
+		public void execute(Runnable command) {
+			executor.execute(wrap(command));
+		}
+	}
+
+	private static class ContextExecutorService implements ExecutorService {
+		private final ExecutorService executor;
+
+		ContextExecutorService(ExecutorService executor) {
+			this.executor = executor;
+		}
+
+		@Override
+		public void execute(Runnable command) {
+			executor.execute(wrap(command));
+		}
+
+		@Override
+		public void shutdown() {
+			executor.shutdown();
+		}
+
+		@Override
+		public List<Runnable> shutdownNow() {
+			return executor.shutdownNow();
+		}
+
+		@Override
+		public boolean isShutdown() {
+			return executor.isShutdown();
+		}
+
+		@Override
+		public boolean isTerminated() {
+			return executor.isTerminated();
+		}
+
+		@Override
+		public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+			return executor.awaitTermination(timeout, unit);
+		}
+
+		@Override
+		public <T> Future<T> submit(Callable<T> task) {
+			return executor.submit(wrap(task));
+		}
+
+		@Override
+		public <T> Future<T> submit(Runnable task, T result) {
+			return executor.submit(wrap(task), result);
+		}
+
+		@Override
+		public Future<?> submit(Runnable task) {
+			return executor.submit(wrap(task));
+		}
+
+		@Override
+		public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks) throws InterruptedException {
+			return executor.invokeAll(wrapAll(tasks));
+		}
+
+		@Override
+		public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit)
+				throws InterruptedException {
+			return executor.invokeAll(wrapAll(tasks), timeout, unit);
+		}
+
+		@Override
+		public <T> T invokeAny(Collection<? extends Callable<T>> tasks)
+				throws InterruptedException, ExecutionException {
+			return executor.invokeAny(wrapAll(tasks));
+		}
+
+		@Override
+		public <T> T invokeAny(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit)
+				throws InterruptedException, ExecutionException, TimeoutException {
+			return executor.invokeAny(wrapAll(tasks), timeout, unit);
+		}
+	}
+
+	private static class ContextScheduledExecutorService extends ContextExecutorService
+			implements ScheduledExecutorService {
+		private final ScheduledExecutorService executor;
+
+		ContextScheduledExecutorService(ScheduledExecutorService executor) {
+			super(executor);
+			this.executor = executor;
+		}
+
+		@Override
+		public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+			return executor.schedule(wrap(command), delay, unit);
+		}
+
+		@Override
+		public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+			return executor.schedule(wrap(callable), delay, unit);
+		}
+
+		@Override
+		public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period,
+				TimeUnit unit) {
+			return executor.scheduleAtFixedRate(wrap(command), initialDelay, period, unit);
+		}
+
+		@Override
+		public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay,
+				TimeUnit unit) {
+			return executor.scheduleWithFixedDelay(wrap(command), initialDelay, delay, unit);
+		}
+	}
+}
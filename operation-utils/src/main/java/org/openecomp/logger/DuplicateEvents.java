@@ -0,0 +1,227 @@
+
+/*-
+ * ============LICENSE_START==========================================
+ * OPENECOMP - DCAE
+ * ===================================================================
+ * Copyright (c) 2017 AT&T Intellectual Property. All rights reserved.
+ * ===================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END============================================
+ */
+	
+package org.openecomp.logger;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.att.eelf.configuration.EELFLogger;
+import com.att.eelf.i18n.EELFResourceManager;
+
+/**
+ * Collapses repeated error and warn records. A record is fingerprinted by its message, its arguments and the
+ * ClassName field it carries. The first record of a fingerprint is written right away, the repeats that follow are
+ * only counted, and at the end of every window one record with the fields and text of the first one is written for
+ * them, the text followed by "(repeated N times in T ms)". A fingerprint that was not repeated for a whole window is
+ * forgotten, so its next record is written right away again.
+ * 
+ * Recording a repeat is an increment of the counter of the fingerprint, no lock is taken. At most
+ * {@link #MAX_FINGERPRINTS} fingerprints are tracked, records beyond them are written as they come.
+ * 
+ * System properties: org.openecomp.logger.dedup (true to enable) and org.openecomp.logger.dedup.window
+ * (milliseconds, 10000 by default).
+ */
+public final class DuplicateEvents {
+
+	public static final String ENABLED_PROPERTY = "org.openecomp.logger.dedup";
+
+	public static final String WINDOW_PROPERTY = "org.openecomp.logger.dedup.window";
+
+	static final int MAX_FINGERPRINTS = 10000;
+
+	private static final ConcurrentMap<Fingerprint, Occurrences> fingerprints = new ConcurrentHashMap<Fingerprint, Occurrences>();
+
+	private static volatile boolean enabled;
+
+	private static ScheduledExecutorService flusher;
+
+	static {
+		if (Boolean.getBoolean(ENABLED_PROPERTY))
+			setEnabled(true);
+	}
+
+	private DuplicateEvents() {
+	}
+
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Turn the collapsing on or off. While on, a daemon thread writes the repeat counts at the end of every window.
+	 * Turning it off writes the counts collected so far.
+	 */
+	public static synchronized void setEnabled(boolean on) {
+		if (on == enabled)
+			return;
+		enabled = on;
+		if (on) {
+			long window = Long.getLong(WINDOW_PROPERTY, 10000);
+			flusher = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread t = new Thread(r, "ecomp-logger-dedup");
+					t.setDaemon(true);
+					return t;
+				}
+			});
+			flusher.scheduleAtFixedRate(new Runnable() {
+				@Override
+				public void run() {
+					flush();
+				}
+			}, window, window, TimeUnit.MILLISECONDS);
+		} else {
+			flusher.shutdown();
+			flusher = null;
+			flush();
+			fingerprints.clear();
+		}
+	}
+
+	/**
+	 * End the current window now: write the repeat counts and forget the fingerprints that were not repeated
+	 * 
+	 * @return the number of repeats collapsed in the window
+	 */
+	public static synchronized long flush() {
+		long now = System.currentTimeMillis();
+		long total = 0;
+		for (Map.Entry<Fingerprint, Occurrences> e : fingerprints.entrySet()) {
+			Occurrences o = e.getValue();
+			if (o.repeats.compareAndSet(0, -1)) {
+				fingerprints.remove(e.getKey(), o);
+				continue;
+			}
+			long n = o.repeats.getAndSet(0);
+			o.write(e.getKey(), n, now);
+			total += n;
+		}
+		return total;
+	}
+
+	/**
+	 * @param args
+	 *            the normalized arguments, not modified by the caller afterwards
+	 * @return true if the record repeats one written in the current window and is only to be counted
+	 */
+	static boolean repeated(String loggerName, EELFLogger logger, EELFLogger.Level level, EcompMessageEnum msg,
+			String[] args, EventFields f) {
+		if (!enabled)
+			return false;
+		Fingerprint key = new Fingerprint(msg, args, f.get(EcompLogger.CLASS_NAME));
+		for (;;) {
+			Occurrences o = fingerprints.get(key);
+			if (o == null) {
+				if (fingerprints.size() >= MAX_FINGERPRINTS)
+					return false;
+				o = new Occurrences(loggerName, logger, level, f.copy());
+				if (fingerprints.putIfAbsent(key.copy(), o) == null)
+					return false;
+			} else if (o.repeat()) {
+				return true;
+			} else {
+				// forgotten by the flusher just now, this is a first occurrence again
+				fingerprints.remove(key, o);
+			}
+		}
+	}
+
+	private static final class Fingerprint {
+		final EcompMessageEnum msg;
+		final String[] args;
+		final String className;
+		final int hash;
+
+		Fingerprint(EcompMessageEnum msg, String[] args, String className) {
+			this.msg = msg;
+			this.args = args;
+			this.className = className;
+			int h = msg.hashCode();
+			h = 31 * h + Arrays.hashCode(args);
+			h = 31 * h + (className == null ? 0 : className.hashCode());
+			this.hash = h;
+		}
+
+		// the key kept in the map, with arguments of its own
+		Fingerprint copy() {
+			return new Fingerprint(msg, args.clone(), className);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Fingerprint))
+				return false;
+			Fingerprint k = (Fingerprint) o;
+			return hash == k.hash && msg.equals(k.msg) && Arrays.equals(args, k.args)
+					&& (className == null ? k.className == null : className.equals(k.className));
+		}
+	}
+
+	/**
+	 * The repeats of a fingerprint in the current window, -1 once the flusher has forgotten it
+	 */
+	private static final class Occurrences {
+		final String loggerName;
+		final EELFLogger logger;
+		final EELFLogger.Level level;
+		final Map<String, String> fields;
+		final AtomicLong repeats = new AtomicLong();
+		long windowStart = System.currentTimeMillis();
+
+		Occurrences(String loggerName, EELFLogger logger, EELFLogger.Level level, Map<String, String> fields) {
+			this.loggerName = loggerName;
+			this.logger = logger;
+			this.level = level;
+			this.fields = fields;
+		}
+
+		boolean repeat() {
+			for (;;) {
+				long n = repeats.get();
+				if (n < 0)
+					return false;
+				if (repeats.compareAndSet(n, n + 1))
+					return true;
+			}
+		}
+
+		void write(Fingerprint key, long n, long now) {
+			String message = EELFResourceManager.format(key.msg, key.args) + " (repeated " + n + " times in "
+					+ (now - windowStart) + " ms)";
+			windowStart = now;
+			LogEventWriter.write(loggerName, logger, level, message, new EventFields.Event(fields));
+		}
+	}
+}
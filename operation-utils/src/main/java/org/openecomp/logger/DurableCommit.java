@@ -0,0 +1,185 @@
+
+/*-
+ * ============LICENSE_START==========================================
+ * OPENECOMP - DCAE
+ * ===================================================================
+ * Copyright (c) 2017 AT&T Intellectual Property. All rights reserved.
+ * ===================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END============================================
+ */
+	
+package org.openecomp.logger;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Collects the commits of the records an EcompLogger call wrote through {@link GroupCommitFileAppender}s, so that the
+ * caller can wait for them. The appenders run on the calling thread, an AsyncAppender between the logger and a group
+ * commit appender hides the commit.
+ * 
+ * A record no group commit appender saw, because none is configured for its logger or the record was not written, is
+ * not durable: its future fails.
+ */
+final class DurableCommit {
+
+	private static final ThreadLocal<DurableCommit> tracking = new ThreadLocal<DurableCommit>();
+
+	private static final AtomicBoolean warned = new AtomicBoolean();
+
+	private final DurableCommit outer;
+
+	private Future<Void> single;
+
+	private List<Future<Void>> more;
+
+	private DurableCommit(DurableCommit outer) {
+		this.outer = outer;
+	}
+
+	/**
+	 * Start collecting the commits of the calling thread
+	 */
+	static DurableCommit begin() {
+		DurableCommit c = new DurableCommit(tracking.get());
+		tracking.set(c);
+		return c;
+	}
+
+	static boolean isTracking() {
+		return tracking.get() != null;
+	}
+
+	/**
+	 * Called by an appender with the commit a record was added to
+	 */
+	static void register(Future<Void> commit) {
+		DurableCommit c = tracking.get();
+		if (c == null)
+			return;
+		if (c.single == null) {
+			c.single = commit;
+		} else if (c.single != commit) {
+			if (c.more == null)
+				c.more = new ArrayList<Future<Void>>(2);
+			if (!c.more.contains(commit))
+				c.more.add(commit);
+		}
+	}
+
+	/**
+	 * Stop collecting
+	 */
+	void close() {
+		if (outer != null)
+			tracking.set(outer);
+		else
+			tracking.remove();
+	}
+
+	/**
+	 * @return completes once every collected commit has, fails if there is none
+	 */
+	Future<Void> future() {
+		if (single == null) {
+			if (warned.compareAndSet(false, true))
+				LoggerSettings.warn("A record was logged durably but reached no GroupCommitFileAppender, "
+						+ "it is not known to be on disk.");
+			return NOT_COMMITTED;
+		}
+		if (more == null)
+			return single;
+		more.add(0, single);
+		return new All(more);
+	}
+
+	/**
+	 * No commit to wait for, the record is not known to be on disk
+	 */
+	static final Future<Void> NOT_COMMITTED = new Future<Void>() {
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			return false;
+		}
+
+		@Override
+		public boolean isCancelled() {
+			return false;
+		}
+
+		@Override
+		public boolean isDone() {
+			return true;
+		}
+
+		@Override
+		public Void get() throws ExecutionException {
+			throw new ExecutionException(new IOException("The record reached no GroupCommitFileAppender"));
+		}
+
+		@Override
+		public Void get(long timeout, TimeUnit unit) throws ExecutionException {
+			return get();
+		}
+	};
+
+	private static final class All implements Future<Void> {
+		private final List<Future<Void>> commits;
+
+		All(List<Future<Void>> commits) {
+			this.commits = commits;
+		}
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			return false;
+		}
+
+		@Override
+		public boolean isCancelled() {
+			return false;
+		}
+
+		@Override
+		public boolean isDone() {
+			for (Future<Void> f : commits) {
+				if (!f.isDone())
+					return false;
+			}
+			return true;
+		}
+
+		@Override
+		public Void get() throws InterruptedException, ExecutionException {
+			for (Future<Void> f : commits)
+				f.get();
+			return null;
+		}
+
+		@Override
+		public Void get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException,
+				TimeoutException {
+			long deadline = System.nanoTime() + unit.toNanos(timeout);
+			for (Future<Void> f : commits)
+				f.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+			return null;
+		}
+	}
+}
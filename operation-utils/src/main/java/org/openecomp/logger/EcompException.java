@@ -21,6 +21,10 @@
 	
 package org.openecomp.logger;
 
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 import com.att.eelf.i18n.EELFResourceManager;
 
 public class EcompException extends RuntimeException {
@@ -28,14 +32,55 @@ public class EcompException extends RuntimeException {
 	public String[] args;
 	static final long serialVersionUID = -4904961953794640177L;
 
+	/**
+	 * Messages whose exceptions from {@link #createLazy(EcompMessageEnum, String...)} have no stack trace, given as a
+	 * comma separated list of enum class and constant names, e.g.
+	 * org.openecomp.logger.GenericMessagesMessageEnum.ECOMP_GENERAL_ERROR
+	 */
+	public static final String STACKLESS_PROPERTY = "org.openecomp.logger.stacklessExceptions";
+
+	private static final Set<EcompMessageEnum> stackless = Collections
+			.newSetFromMap(new ConcurrentHashMap<EcompMessageEnum, Boolean>());
+
+	static {
+		String names = System.getProperty(STACKLESS_PROPERTY);
+		if (names != null) {
+			for (String name : names.split(",")) {
+				EcompMessageEnum msgEnum = MessageEnums.resolve(name.trim());
+				if (msgEnum != null)
+					stackless.add(msgEnum);
+			}
+		}
+	}
+
+	// true when the message is formatted on the first getMessage()
+	private final boolean lazy;
+
+	private transient volatile String message;
+
 	protected EcompException(EcompMessageEnum msgEnum, String message) {
 		super(message);
 		this.msgEnum = msgEnum;
+		this.lazy = false;
 	}
 
 	protected EcompException(EcompMessageEnum msgEnum, String message, Throwable t) {
 		super(message, t);
 		this.msgEnum = msgEnum;
+		this.lazy = false;
+	}
+
+	/**
+	 * An exception whose message is formatted from msgEnum and args when first asked for
+	 * 
+	 * @param writableStackTrace
+	 *            false to leave the stack trace empty
+	 */
+	protected EcompException(EcompMessageEnum msgEnum, String[] args, Throwable t, boolean writableStackTrace) {
+		super(null, t, true, writableStackTrace);
+		this.msgEnum = msgEnum;
+		this.args = args;
+		this.lazy = true;
 	}
 
 	public static EcompException create(EcompMessageEnum msgEnum, String... args) {
@@ -50,4 +95,48 @@ public class EcompException extends RuntimeException {
 		return e;
 	}
 
+	/**
+	 * As {@link #create(EcompMessageEnum, String...)}, but the message is only formatted when getMessage() is first
+	 * called, and there is no stack trace if msgEnum is set to be stackless. The args are kept, not copied.
+	 */
+	public static EcompException createLazy(EcompMessageEnum msgEnum, String... args) {
+		return new EcompException(msgEnum, args, null, !stackless.contains(msgEnum));
+	}
+
+	/**
+	 * As {@link #create(EcompMessageEnum, Throwable, String...)} with the message formatted when first asked for, see
+	 * {@link #createLazy(EcompMessageEnum, String...)}
+	 */
+	public static EcompException createLazy(EcompMessageEnum msgEnum, Throwable t, String... args) {
+		return new EcompException(msgEnum, args, t, !stackless.contains(msgEnum));
+	}
+
+	/**
+	 * @param stacklessExceptions
+	 *            true if the exceptions {@link #createLazy(EcompMessageEnum, String...)} creates for msgEnum are to
+	 *            skip filling in their stack trace, for messages used in validation or flow control
+	 */
+	public static void setStackless(EcompMessageEnum msgEnum, boolean stacklessExceptions) {
+		if (stacklessExceptions)
+			stackless.add(msgEnum);
+		else
+			stackless.remove(msgEnum);
+	}
+
+	public static boolean isStackless(EcompMessageEnum msgEnum) {
+		return stackless.contains(msgEnum);
+	}
+
+	@Override
+	public String getMessage() {
+		if (!lazy)
+			return super.getMessage();
+		String m = message;
+		if (m == null) {
+			m = EELFResourceManager.format(msgEnum, args);
+			message = m;
+		}
+		return m;
+	}
+
 }
@@ -0,0 +1,198 @@
+
+/*-
+ * ============LICENSE_START==========================================
+ * OPENECOMP - DCAE
+ * ===================================================================
+ * Copyright (c) 2017 AT&T Intellectual Property. All rights reserved.
+ * ===================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END============================================
+ */
+	
+package org.openecomp.logger;
+
+import java.util.Map;
+
+import org.slf4j.MDC;
+
+/**
+ * The fields of a request that go into every audit, metric and error record written for it (RequestId,
+ * ServiceInstanceId, PartnerName, ...), as an immutable value. Build it once per request and pass it to the
+ * EcompLogger methods taking a context: those assemble each record from the context and the event, and never write
+ * the fields into the MDC of the thread. MDC entries of the thread that the context does not override still show up
+ * in the records.
+ * 
+ * Being immutable, a context can be handed to other threads as is.
+ */
+public final class EcompLogContext {
+
+	private static final EelfField[] FIELDS = EelfField.values();
+
+	private static final EcompLogContext EMPTY = new EcompLogContext(new String[FIELDS.length]);
+
+	// indexed by EelfField ordinal, null for a field that is not set
+	private final String[] values;
+
+	private EcompLogContext(String[] values) {
+		this.values = values;
+	}
+
+	/**
+	 * @return a context without any field set
+	 */
+	public static EcompLogContext empty() {
+		return EMPTY;
+	}
+
+	/**
+	 * @return a context with the fields currently in the MDC of the calling thread
+	 */
+	public static EcompLogContext fromMdc() {
+		Builder b = builder();
+		for (EelfField f : FIELDS)
+			b.set(f, MDC.get(f.getKey()));
+		return b.build();
+	}
+
+	public static Builder builder() {
+		return new Builder(new String[FIELDS.length]);
+	}
+
+	public Builder toBuilder() {
+		return new Builder(values.clone());
+	}
+
+	/**
+	 * @return the value of the field, or null when not set
+	 */
+	public String get(EelfField field) {
+		return values[field.ordinal()];
+	}
+
+	/**
+	 * @return a copy of this context with one field changed, or removed if value is null
+	 */
+	public EcompLogContext with(EelfField field, String value) {
+		String[] v = values.clone();
+		v[field.ordinal()] = value;
+		return new EcompLogContext(v);
+	}
+
+	/**
+	 * @return a copy of this context for calls to the given target, e.g. for the metric records of one downstream
+	 *         system
+	 */
+	public EcompLogContext withTarget(String targetEntity, String targetServiceName) {
+		String[] v = values.clone();
+		v[EelfField.TARGET_ENTITY.ordinal()] = targetEntity;
+		v[EelfField.TARGET_SERVICE_NAME.ordinal()] = targetServiceName;
+		return new EcompLogContext(v);
+	}
+
+	void putInto(EventFields fields) {
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] != null)
+				fields.put(FIELDS[i].getKey(), values[i]);
+		}
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder b = new StringBuilder("EcompLogContext [");
+		String separator = "";
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] != null) {
+				b.append(separator).append(FIELDS[i].getKey()).append('=').append(values[i]);
+				separator = ", ";
+			}
+		}
+		return b.append(']').toString();
+	}
+
+	public static final class Builder {
+		private final String[] values;
+
+		private Builder(String[] values) {
+			this.values = values;
+		}
+
+		public Builder set(EelfField field, String value) {
+			values[field.ordinal()] = value;
+			return this;
+		}
+
+		public Builder requestId(String requestId) {
+			return set(EelfField.REQUEST_ID, requestId);
+		}
+
+		public Builder serviceInstanceId(String serviceInstanceId) {
+			return set(EelfField.SERVICE_INSTANCE_ID, serviceInstanceId);
+		}
+
+		public Builder serviceName(String serviceName) {
+			return set(EelfField.SERVICE_NAME, serviceName);
+		}
+
+		public Builder partnerName(String partnerName) {
+			return set(EelfField.PARTNER_NAME, partnerName);
+		}
+
+		public Builder threadId(String threadId) {
+			return set(EelfField.THREAD_ID, threadId);
+		}
+
+		public Builder target(String targetEntity, String targetServiceName) {
+			set(EelfField.TARGET_ENTITY, targetEntity);
+			return set(EelfField.TARGET_SERVICE_NAME, targetServiceName);
+		}
+
+		public Builder remoteHost(String remoteHost) {
+			return set(EelfField.REMOTE_HOST, remoteHost);
+		}
+
+		public Builder user(String user) {
+			return set(EelfField.USER, user);
+		}
+
+		public Builder instanceUuid(String instanceUuid) {
+			return set(EelfField.INSTANCE_UUID, instanceUuid);
+		}
+
+		/**
+		 * Set CustomField1 to CustomField4, further values are ignored
+		 */
+		public Builder customFields(String... customFields) {
+			EelfField[] custom = { EelfField.CUSTOM_FIELD_1, EelfField.CUSTOM_FIELD_2, EelfField.CUSTOM_FIELD_3,
+					EelfField.CUSTOM_FIELD_4 };
+			for (int i = 0; i < custom.length && i < customFields.length; i++)
+				set(custom[i], customFields[i]);
+			return this;
+		}
+
+		/**
+		 * Set every field from the map whose key is one of the {@link EelfField} keys
+		 */
+		public Builder putAll(Map<String, String> fields) {
+			for (EelfField f : FIELDS) {
+				String v = fields.get(f.getKey());
+				if (v != null)
+					set(f, v);
+			}
+			return this;
+		}
+
+		public EcompLogContext build() {
+			return new EcompLogContext(values.clone());
+		}
+	}
+}
@@ -21,10 +21,10 @@
 	
 package org.openecomp.logger;
 
-import java.io.PrintWriter;
-import java.io.StringWriter;
 import java.util.Date;
-import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
 
 import javax.servlet.http.HttpServletRequest;
 
@@ -36,6 +36,7 @@ import org.openecomp.entity.EcompOperation;
 import org.openecomp.entity.EcompOperationEnum;
 import org.openecomp.entity.EcompSubComponentInstance;
 import com.att.eelf.configuration.EELFLogger;
+import com.att.eelf.configuration.EELFLogger.Level;
 import com.att.eelf.configuration.SLF4jWrapper;
 
 public class EcompLogger {
@@ -75,22 +76,81 @@ public class EcompLogger {
 	private static final String CustomField3 = "CustomField3";
 	private static final String CustomField4 = "CustomField4";
 
-	private EELFLogger errorLogger, auditLogger, metricsLogger, debugLogger;
+	private final EELFLogger errorLogger, auditLogger, metricsLogger, debugLogger;
+
+	private final String errorLoggerName, auditLoggerName, metricsLoggerName, debugLoggerName;
+
+	// cached enabled levels, shared by all instances and reset when the logging configuration changes
+	private final LoggerSettings.Levels errorLevels, auditLevels, metricsLevels, debugLevels;
 
 	private static final String ERROR_LOGGER_NAME = "org.openecomp.error";
 	private static final String AUDIT_LOGGER_NAME = "org.openecomp.audit";
 	private static final String METRICS_LOGGER_NAME = "org.openecomp.metrics";
 	private static final String DEBUG_LOGGER_NAME = "org.openecomp.debug";
 
+	/**
+	 * System property selecting the request id generator: "random" for random UUIDs, or the class name of a
+	 * {@link RequestIdGenerator}. Time ordered UUIDs by default.
+	 */
+	public static final String REQUEST_ID_GENERATOR_PROPERTY = "org.openecomp.logger.requestIdGenerator";
+
+	private static volatile RequestIdGenerator requestIdGenerator = initialRequestIdGenerator();
+
+	private static final ConcurrentMap<String, EcompLogger> componentLoggers = new ConcurrentHashMap<String, EcompLogger>();
+
+	// the instance has no state of its own (the event fields live in the MDC), so one is shared by everybody
+	private static class Shared {
+		static final EcompLogger instance = new EcompLogger();
+	}
+
 	protected EcompLogger() {
-		this.errorLogger = new SLF4jWrapper(ERROR_LOGGER_NAME);
-		this.auditLogger = new SLF4jWrapper(AUDIT_LOGGER_NAME);
-		this.metricsLogger = new SLF4jWrapper(METRICS_LOGGER_NAME);
-		this.debugLogger = new SLF4jWrapper(DEBUG_LOGGER_NAME);
+		this(null);
 	}
 
-	public static synchronized EcompLogger getEcompLogger() {
-		return new EcompLogger();
+	/**
+	 * @param component
+	 *            when not null, events go to the org.openecomp.{error,audit,metrics,debug}.component loggers, so that
+	 *            levels and appenders can be configured per component
+	 */
+	protected EcompLogger(String component) {
+		String suffix = component == null ? "" : "." + component;
+		this.errorLoggerName = ERROR_LOGGER_NAME + suffix;
+		this.auditLoggerName = AUDIT_LOGGER_NAME + suffix;
+		this.metricsLoggerName = METRICS_LOGGER_NAME + suffix;
+		this.debugLoggerName = DEBUG_LOGGER_NAME + suffix;
+		this.errorLogger = new SLF4jWrapper(errorLoggerName);
+		this.auditLogger = new SLF4jWrapper(auditLoggerName);
+		this.metricsLogger = new SLF4jWrapper(metricsLoggerName);
+		this.debugLogger = new SLF4jWrapper(debugLoggerName);
+		this.errorLevels = LoggerSettings.levels(errorLoggerName, errorLogger);
+		this.auditLevels = LoggerSettings.levels(auditLoggerName, auditLogger);
+		this.metricsLevels = LoggerSettings.levels(metricsLoggerName, metricsLogger);
+		this.debugLevels = LoggerSettings.levels(debugLoggerName, debugLogger);
+	}
+
+	/**
+	 * @return the shared logger, safe to keep in a static field and to use from any thread
+	 */
+	public static EcompLogger getEcompLogger() {
+		return Shared.instance;
+	}
+
+	/**
+	 * @param component
+	 *            name of the component, a logger name segment such as "inventory" or "policy.handler"
+	 * @return the shared logger of the component, created on first use
+	 */
+	public static EcompLogger getEcompLogger(String component) {
+		if (isNullOrEmpty(component))
+			return Shared.instance;
+		EcompLogger logger = componentLoggers.get(component);
+		if (logger == null) {
+			EcompLogger created = new EcompLogger(component);
+			logger = componentLoggers.putIfAbsent(component, created);
+			if (logger == null)
+				logger = created;
+		}
+		return logger;
 	}
 
 	// region Error Logging region
@@ -121,32 +181,38 @@ public class EcompLogger {
 
 	private void prepareMsgEELFv1(String threadID, String partnerName, String targetEntity, String targetServiceName,
 			StatusCodeEnum statusCode, String[] customFields) {
+		prepareMsgEELFv1(EventFields.THREAD_MDC, threadID, partnerName, targetEntity, targetServiceName, statusCode,
+				customFields);
+	}
+
+	private void prepareMsgEELFv1(EventFields f, String threadID, String partnerName, String targetEntity,
+			String targetServiceName, StatusCodeEnum statusCode, String[] customFields) {
 		if (!isNullOrEmpty(threadID))
-			MDC.put(THREAD_ID, threadID);
+			f.put(THREAD_ID, threadID);
 		if (!isNullOrEmpty(partnerName))
-			MDC.put(PARTNER_NAME, partnerName);
+			f.put(PARTNER_NAME, partnerName);
 		if (!isNullOrEmpty(targetEntity))
-			MDC.put(TARGET_ENTITY, targetEntity);
+			f.put(TARGET_ENTITY, targetEntity);
 		if (!isNullOrEmpty(targetServiceName))
-			MDC.put(TARGET_SERVICE_NAME, targetServiceName);
+			f.put(TARGET_SERVICE_NAME, targetServiceName);
 		if (statusCode != null)
-			MDC.put(STATUS_CODE, statusCode.toString());
+			f.put(STATUS_CODE, statusCode.toString());
 
 		// Backfill unknown values
-		if (isNullOrEmpty(MDC.get(THREAD_ID)))
-			MDC.put(THREAD_ID, "UNKNOWN");
-		if (isNullOrEmpty(MDC.get(PARTNER_NAME)))
-			MDC.put(PARTNER_NAME, "UNKNOWN");
-		if (isNullOrEmpty(MDC.get(TARGET_ENTITY)))
-			MDC.put(TARGET_ENTITY, "UNKNOWN");
-		if (isNullOrEmpty(MDC.get(TARGET_SERVICE_NAME)))
-			MDC.put(TARGET_SERVICE_NAME, "UNKNOWN");
-		if (isNullOrEmpty(MDC.get(STATUS_CODE)))
-			MDC.put(STATUS_CODE, "UNKNOWN");
+		if (isNullOrEmpty(f.get(THREAD_ID)))
+			f.put(THREAD_ID, "UNKNOWN");
+		if (isNullOrEmpty(f.get(PARTNER_NAME)))
+			f.put(PARTNER_NAME, "UNKNOWN");
+		if (isNullOrEmpty(f.get(TARGET_ENTITY)))
+			f.put(TARGET_ENTITY, "UNKNOWN");
+		if (isNullOrEmpty(f.get(TARGET_SERVICE_NAME)))
+			f.put(TARGET_SERVICE_NAME, "UNKNOWN");
+		if (isNullOrEmpty(f.get(STATUS_CODE)))
+			f.put(STATUS_CODE, "UNKNOWN");
 
 		if (customFields != null) {
 			for (int i = 0; i < customFields.length; i++) {
-				MDC.put("CustomField" + Integer.toString(i + 1), customFields[i]);
+				f.put("CustomField" + Integer.toString(i + 1), customFields[i]);
 				if (i == 3)
 					break;
 			}
@@ -157,16 +223,24 @@ public class EcompLogger {
 
 	public void error(String threadID, String partnerName, LogCategoryEnum logCategoryEnum, String[] customFields,
 			EcompMessageEnum msg, String... args) {
+		if (!errorLevels.isEnabled(Level.ERROR) || !EventLimits.allow(msg, partnerName))
+			return;
 		prepareMsg(logCategoryEnum, msg);
 		prepareMsgEELFv1(threadID, partnerName, null, null, null, customFields);
-		errorLogger.error(msg, normalizeArray(args));
+		String[] a = normalizeArray(args);
+		if (!DuplicateEvents.repeated(errorLoggerName, errorLogger, Level.ERROR, msg, a, EventFields.THREAD_MDC))
+			errorLogger.error(msg, a);
 		clearMetricFields();
 	}
 
 	public void error(LogCategoryEnum logCategoryEnum, EcompMessageEnum msg, String... args) {
-		setClassName();
+		if (!errorLevels.isEnabled(Level.ERROR) || !EventLimits.allow(msg, EventFields.THREAD_MDC))
+			return;
+		setClassName(errorLoggerName);
 		prepareMsg(logCategoryEnum, msg);
-		errorLogger.error(msg, normalizeArray(args));
+		String[] a = normalizeArray(args);
+		if (!DuplicateEvents.repeated(errorLoggerName, errorLogger, Level.ERROR, msg, a, EventFields.THREAD_MDC))
+			errorLogger.error(msg, a);
 	}
 
 	/**
@@ -176,9 +250,13 @@ public class EcompLogger {
 	 *            The log message to put
 	 */
 	public void error(EcompMessageEnum msg, String... args) {
-		setClassName();
+		if (!errorLevels.isEnabled(Level.ERROR) || !EventLimits.allow(msg, EventFields.THREAD_MDC))
+			return;
+		setClassName(errorLoggerName);
 		prepareMsg(ERROR_LEVEL, msg);
-		errorLogger.error(msg, normalizeArray(args));
+		String[] a = normalizeArray(args);
+		if (!DuplicateEvents.repeated(errorLoggerName, errorLogger, Level.ERROR, msg, a, EventFields.THREAD_MDC))
+			errorLogger.error(msg, a);
 	}
 
 	/**
@@ -190,11 +268,18 @@ public class EcompLogger {
 	 *            The exception info
 	 */
 	public void error(EcompMessageEnum msg, Throwable t, String... args) {
-		setClassName();
+		if (!errorLevels.isEnabled(Level.ERROR) || !EventLimits.allow(msg, EventFields.THREAD_MDC))
+			return;
+		setClassName(errorLoggerName);
 		prepareMsg(ERROR_LEVEL, msg);
-		errorLogger.error(msg, normalizeArray(args));
-		errorLogger.error(msg, getNormalizedStackTrace(t));
-		errorLogger.debug("Exception raised", t);
+		String[] a = normalizeArray(args);
+		if (DuplicateEvents.repeated(errorLoggerName, errorLogger, Level.ERROR, msg, a, EventFields.THREAD_MDC))
+			return;
+		errorLogger.error(msg, a);
+		StackFingerprints.Trace trace = StackFingerprints.of(t);
+		errorLogger.error(msg, trace.text);
+		if (trace.full)
+			errorLogger.debug("Exception raised", t);
 	}
 
 	/**
@@ -204,7 +289,9 @@ public class EcompLogger {
 	 *            The log message to put
 	 */
 	public void info(EcompMessageEnum msg, String... args) {
-		setClassName();
+		if (!debugLevels.isEnabled(Level.INFO) || !EventLimits.allow(msg, EventFields.THREAD_MDC))
+			return;
+		setClassName(debugLoggerName);
 		prepareMsg(INFO_LEVEL, msg);
 		debugLogger.info(msg, normalizeArray(args));
 	}
@@ -218,15 +305,21 @@ public class EcompLogger {
 	 *            The exception info
 	 */
 	public void info(EcompMessageEnum msg, Throwable t, String... args) {
-		setClassName();
+		if (!debugLevels.isEnabled(Level.INFO) || !EventLimits.allow(msg, EventFields.THREAD_MDC))
+			return;
+		setClassName(debugLoggerName);
 		prepareMsg(WARN_LEVEL, msg);
 		debugLogger.info(msg, normalizeArray(args));
-		debugLogger.info("Exception raised: " + getNormalizedStackTrace(t));
-		debugLogger.debug("Exception raised", t);
+		StackFingerprints.Trace trace = StackFingerprints.of(t);
+		debugLogger.info("Exception raised: " + trace.text);
+		if (trace.full)
+			debugLogger.debug("Exception raised", t);
 	}
 
 	public void info(String msg) {
-		setClassName();
+		if (!debugLevels.isEnabled(Level.DEBUG))
+			return;
+		setClassName(debugLoggerName);
 		prepareMsg(INFO_LEVEL);
 		debugLogger.debug(msg);
 	}
@@ -238,9 +331,13 @@ public class EcompLogger {
 	 *            The log message to put
 	 */
 	public void warn(EcompMessageEnum msg, String... args) {
-		setClassName();
+		if (!errorLevels.isEnabled(Level.WARN) || !EventLimits.allow(msg, EventFields.THREAD_MDC))
+			return;
+		setClassName(errorLoggerName);
 		prepareMsg(WARN_LEVEL, msg);
-		errorLogger.warn(msg, normalizeArray(args));
+		String[] a = normalizeArray(args);
+		if (!DuplicateEvents.repeated(errorLoggerName, errorLogger, Level.WARN, msg, a, EventFields.THREAD_MDC))
+			errorLogger.warn(msg, a);
 	}
 
 	/**
@@ -252,11 +349,18 @@ public class EcompLogger {
 	 *            The exception info
 	 */
 	public void warn(EcompMessageEnum msg, Throwable t, String... args) {
-		setClassName();
+		if (!errorLevels.isEnabled(Level.WARN) || !EventLimits.allow(msg, EventFields.THREAD_MDC))
+			return;
+		setClassName(errorLoggerName);
 		prepareMsg(WARN_LEVEL, msg);
-		errorLogger.warn(msg, normalizeArray(args));
-		errorLogger.warn("Exception raised: " + getNormalizedStackTrace(t));
-		errorLogger.debug("Exception raised", t);
+		String[] a = normalizeArray(args);
+		if (DuplicateEvents.repeated(errorLoggerName, errorLogger, Level.WARN, msg, a, EventFields.THREAD_MDC))
+			return;
+		errorLogger.warn(msg, a);
+		StackFingerprints.Trace trace = StackFingerprints.of(t);
+		errorLogger.warn("Exception raised: " + trace.text);
+		if (trace.full)
+			errorLogger.debug("Exception raised", t);
 	}
 
 	/**
@@ -266,7 +370,9 @@ public class EcompLogger {
 	 *            The log message to put
 	 */
 	public void debug(String msg) {
-		setClassName();
+		if (!debugLevels.isEnabled(Level.DEBUG))
+			return;
+		setClassName(debugLoggerName);
 		prepareMsg(DEBUG_LEVEL);
 		debugLogger.debug(msg);
 	}
@@ -280,19 +386,25 @@ public class EcompLogger {
 	 *            The exception to put
 	 */
 	public void debug(String msg, Throwable t) {
-		setClassName();
+		if (!debugLevels.isEnabled(Level.DEBUG))
+			return;
+		setClassName(debugLoggerName);
 		prepareMsg(DEBUG_LEVEL);
 		debugLogger.debug(msg, t);
 	}
 
 	public void debug(EcompMessageEnum msg, String... args) {
-		setClassName();
+		if (!debugLevels.isEnabled(Level.INFO) || !EventLimits.allow(msg, EventFields.THREAD_MDC))
+			return;
+		setClassName(debugLoggerName);
 		prepareMsg(DEBUG_LEVEL, msg);
 		debugLogger.info(msg, normalizeArray(args));
 	}
 
 	public void debug(Throwable t, EcompMessageEnum msg, String... args) {
-		setClassName();
+		if (!debugLevels.isEnabled(Level.INFO) || !EventLimits.allow(msg, EventFields.THREAD_MDC))
+			return;
+		setClassName(debugLoggerName);
 		prepareMsg(DEBUG_LEVEL, msg);
 		debugLogger.info(msg, t, normalizeArray(args));
 	}
@@ -329,28 +441,45 @@ public class EcompLogger {
 
 	protected void recordAuditEventEnd(StatusCodeEnum statusCode, LogCategoryEnum logCategoryEnum,
 			String[] customFields, EcompMessageEnum msg, String... args) {
-		Stopwatch.stopAndPop();
+		long nanos = Stopwatch.popWatchNanos();
+		if (PrometheusExporter.isRunning())
+			recordRequest(EventFields.THREAD_MDC, statusCode, nanos);
 		if (!Stopwatch.emptyStack()) {
 			warn(GenericMessagesMessageEnum.ECOMP_LOGGER_NON_EMPTY_STACK);
 		}
-		setClassName();
+		if (!auditLevels.isEnabled(Level.INFO) || !EventLimits.allowAudit(msg, EventFields.THREAD_MDC)) {
+			clearAuditFields();
+			return;
+		}
+		setClassName(auditLoggerName);
 		prepareMsg(logCategoryEnum, msg);
 		prepareMsgEELFv1(null, null, null, null, statusCode, customFields);
-		auditLogger.info(msg, normalizeArray(args));
+		String[] a = normalizeArray(args);
+		if (!EventRing.publish(auditLoggerName, Level.INFO, msg, a))
+			auditLogger.info(msg, a);
 		clearAuditFields();
 	}
 
 	public void setClassName() {
-		StackTraceElement[] l = Thread.currentThread().getStackTrace();
-		for (StackTraceElement x : l) {
-			if (x.getClassName().equals("java.lang.Thread"))
-				continue;
-			if (x.getClassName().equals("org.openecomp.logger.EcompLogger"))
-				continue;
-			if (x.getClassName().equals("org.openecomp.logger.Stopwatch"))
-				continue;
-			MDC.put(CLASS_NAME, x.getClassName() + "@" + x.getMethodName() + ":" + x.getLineNumber());
-			return;
+		String location = CallerLocation.find();
+		if (location != null)
+			MDC.put(CLASS_NAME, location);
+	}
+
+	/**
+	 * Record the caller location for an event, unless none of the appenders behind the logger renders the ClassName
+	 * field.
+	 */
+	private void setClassName(String loggerName) {
+		if (LoggerSettings.usesClassName(loggerName))
+			setClassName();
+	}
+
+	private void setClassName(EventFields f, String loggerName) {
+		if (LoggerSettings.usesClassName(loggerName)) {
+			String location = CallerLocation.find();
+			if (location != null)
+				f.put(CLASS_NAME, location);
 		}
 	}
 
@@ -379,6 +508,38 @@ public class EcompLogger {
 		recordAuditEventEnd(StatusCodeEnum.COMPLETE, LogCategoryEnum.INFO, null, msg, args);
 	}
 
+	/**
+	 * Record the Audit end event as {@link #recordAuditEventEnd(StatusCodeEnum)} does
+	 * 
+	 * @return completes once the record is on disk in every {@link GroupCommitFileAppender} it went to, fails with an
+	 *         IOException cause if there is none
+	 */
+	public Future<Void> recordAuditEventEndDurably(StatusCodeEnum code) {
+		DurableCommit commit = DurableCommit.begin();
+		try {
+			recordAuditEventEnd(code);
+		} finally {
+			commit.close();
+		}
+		return commit.future();
+	}
+
+	/**
+	 * Record the Audit end event as {@link #recordAuditEventEnd(StatusCodeEnum, EcompMessageEnum, String...)} does
+	 * 
+	 * @return completes once the record is on disk in every {@link GroupCommitFileAppender} it went to, fails with an
+	 *         IOException cause if there is none
+	 */
+	public Future<Void> recordAuditEventEndDurably(StatusCodeEnum code, EcompMessageEnum msg, String... args) {
+		DurableCommit commit = DurableCommit.begin();
+		try {
+			recordAuditEventEnd(code, msg, args);
+		} finally {
+			commit.close();
+		}
+		return commit.future();
+	}
+
 	// endregion
 
 	// region Metrics Logging region
@@ -412,11 +573,19 @@ public class EcompLogger {
 
 	protected void recordMetricEventEnd(StatusCodeEnum statusCode, LogCategoryEnum logCategoryEnum,
 			String[] customFields, EcompMessageEnum msg, String... args) {
-		Stopwatch.stopAndPop();
-		setClassName();
+		long nanos = Stopwatch.popWatchNanos();
+		if (MetricHistograms.isEnabled() || PrometheusExporter.isRunning())
+			recordLatency(EventFields.THREAD_MDC, statusCode, nanos);
+		if (!metricsLevels.isEnabled(Level.INFO) || !MetricHistograms.sampleRawLine()) {
+			clearMetricFields();
+			return;
+		}
+		setClassName(metricsLoggerName);
 		prepareMsg(logCategoryEnum, msg);
 		prepareMsgEELFv1(null, null, null, null, statusCode, customFields);
-		metricsLogger.info(msg, normalizeArray(args));
+		String[] a = normalizeArray(args);
+		if (!EventRing.publish(metricsLoggerName, Level.INFO, msg, a))
+			metricsLogger.info(msg, a);
 		clearMetricFields();
 	}
 
@@ -450,6 +619,183 @@ public class EcompLogger {
 
 	// endregion
 
+	// region Context Logging region
+
+	/*
+	 * The records below are assembled from an EcompLogContext and the event, and handed to the appenders without
+	 * writing the fields into the MDC of the thread. The Stopwatch is shared with the methods above.
+	 */
+
+	/**
+	 * Record the Audit start event of a request logged through a context, nothing is written to the MDC
+	 */
+	public void recordAuditEventStart(EcompLogContext ctx) {
+		Stopwatch.clearAndStart(false);
+	}
+
+	/**
+	 * Record the Metric start event of a call logged through a context, nothing is written to the MDC. The target is
+	 * taken from the context.
+	 */
+	public void recordMetricEventStart(EcompLogContext ctx) {
+		Stopwatch.pushAndStart(null, null, false);
+	}
+
+	public void recordMetricEventStart(EcompLogContext ctx, String targetEntity, String targetServiceName) {
+		Stopwatch.pushAndStart(targetEntity, targetServiceName, false);
+	}
+
+	public void recordAuditEventEnd(EcompLogContext ctx, StatusCodeEnum code) {
+		if (code == StatusCodeEnum.COMPLETE) {
+			EcompMessageEnum msg = GenericMessagesMessageEnum.ECOMP_REQUEST_OK;
+			recordAuditEventEnd(ctx, code, msg2cat(msg), null, msg);
+		} else {
+			EcompMessageEnum msg = GenericMessagesMessageEnum.ECOMP_REQUEST_ERROR;
+			recordAuditEventEnd(ctx, code, msg2cat(msg), null, msg, "unknown error");
+		}
+	}
+
+	public void recordAuditEventEnd(EcompLogContext ctx, StatusCodeEnum code, EcompMessageEnum msg, String... args) {
+		recordAuditEventEnd(ctx, code, msg2cat(msg), null, msg, args);
+	}
+
+	/**
+	 * @return completes once the record is on disk in every {@link GroupCommitFileAppender} it went to, fails with an
+	 *         IOException cause if there is none
+	 */
+	public Future<Void> recordAuditEventEndDurably(EcompLogContext ctx, StatusCodeEnum code) {
+		DurableCommit commit = DurableCommit.begin();
+		try {
+			recordAuditEventEnd(ctx, code);
+		} finally {
+			commit.close();
+		}
+		return commit.future();
+	}
+
+	/**
+	 * @return completes once the record is on disk in every {@link GroupCommitFileAppender} it went to, fails with an
+	 *         IOException cause if there is none
+	 */
+	public Future<Void> recordAuditEventEndDurably(EcompLogContext ctx, StatusCodeEnum code, EcompMessageEnum msg,
+			String... args) {
+		DurableCommit commit = DurableCommit.begin();
+		try {
+			recordAuditEventEnd(ctx, code, msg, args);
+		} finally {
+			commit.close();
+		}
+		return commit.future();
+	}
+
+	protected void recordAuditEventEnd(EcompLogContext ctx, StatusCodeEnum statusCode,
+			LogCategoryEnum logCategoryEnum, String[] customFields, EcompMessageEnum msg, String... args) {
+		EventFields.Event f = event(ctx);
+		long nanos = Stopwatch.stopAndPop(f);
+		if (PrometheusExporter.isRunning())
+			recordRequest(f, statusCode, nanos);
+		if (!Stopwatch.emptyStack()) {
+			warn(ctx, GenericMessagesMessageEnum.ECOMP_LOGGER_NON_EMPTY_STACK);
+		}
+		if (!auditLevels.isEnabled(Level.INFO) || !EventLimits.allowAudit(msg, f))
+			return;
+		setClassName(f, auditLoggerName);
+		prepareMsg(f, getSeverityLevel(logCategoryEnum), null, null, msg);
+		prepareMsgEELFv1(f, null, null, null, null, statusCode, customFields);
+		String[] a = normalizeArray(args);
+		if (!EventRing.publish(auditLoggerName, Level.INFO, msg, a, f.fields()))
+			LogEventWriter.write(auditLoggerName, auditLogger, Level.INFO, EELFResourceManager.format(msg, a), f);
+	}
+
+	public void recordMetricEventEnd(EcompLogContext ctx, StatusCodeEnum code) {
+		if (code == StatusCodeEnum.COMPLETE) {
+			EcompMessageEnum msg = GenericMessagesMessageEnum.ECOMP_REMOTE_CALL_OK;
+			recordMetricEventEnd(ctx, code, msg2cat(msg), null, msg);
+		} else {
+			EcompMessageEnum msg = GenericMessagesMessageEnum.ECOMP_REMOTE_CALL_ERROR;
+			recordMetricEventEnd(ctx, code, msg2cat(msg), null, msg, "unknown error");
+		}
+	}
+
+	public void recordMetricEventEnd(EcompLogContext ctx, StatusCodeEnum code, EcompMessageEnum msg, String... args) {
+		recordMetricEventEnd(ctx, code, msg2cat(msg), null, msg, args);
+	}
+
+	protected void recordMetricEventEnd(EcompLogContext ctx, StatusCodeEnum statusCode,
+			LogCategoryEnum logCategoryEnum, String[] customFields, EcompMessageEnum msg, String... args) {
+		EventFields.Event f = event(ctx);
+		long nanos = Stopwatch.stopAndPop(f);
+		if (MetricHistograms.isEnabled() || PrometheusExporter.isRunning())
+			recordLatency(f, statusCode, nanos);
+		if (!metricsLevels.isEnabled(Level.INFO) || !MetricHistograms.sampleRawLine())
+			return;
+		setClassName(f, metricsLoggerName);
+		prepareMsg(f, getSeverityLevel(logCategoryEnum), null, null, msg);
+		prepareMsgEELFv1(f, null, null, null, null, statusCode, customFields);
+		String[] a = normalizeArray(args);
+		if (!EventRing.publish(metricsLoggerName, Level.INFO, msg, a, f.fields()))
+			LogEventWriter.write(metricsLoggerName, metricsLogger, Level.INFO, EELFResourceManager.format(msg, a), f);
+	}
+
+	public void error(EcompLogContext ctx, EcompMessageEnum msg, String... args) {
+		if (!errorLevels.isEnabled(Level.ERROR) || !EventLimits.allow(msg, ctx))
+			return;
+		EventFields.Event f = event(ctx);
+		setClassName(f, errorLoggerName);
+		prepareMsg(f, ERROR_LEVEL, null, null, msg);
+		String[] a = normalizeArray(args);
+		if (!DuplicateEvents.repeated(errorLoggerName, errorLogger, Level.ERROR, msg, a, f))
+			LogEventWriter.write(errorLoggerName, errorLogger, Level.ERROR, EELFResourceManager.format(msg, a), f);
+	}
+
+	public void warn(EcompLogContext ctx, EcompMessageEnum msg, String... args) {
+		if (!errorLevels.isEnabled(Level.WARN) || !EventLimits.allow(msg, ctx))
+			return;
+		EventFields.Event f = event(ctx);
+		setClassName(f, errorLoggerName);
+		prepareMsg(f, WARN_LEVEL, null, null, msg);
+		String[] a = normalizeArray(args);
+		if (!DuplicateEvents.repeated(errorLoggerName, errorLogger, Level.WARN, msg, a, f))
+			LogEventWriter.write(errorLoggerName, errorLogger, Level.WARN, EELFResourceManager.format(msg, a), f);
+	}
+
+	public void info(EcompLogContext ctx, EcompMessageEnum msg, String... args) {
+		if (!debugLevels.isEnabled(Level.INFO) || !EventLimits.allow(msg, ctx))
+			return;
+		EventFields.Event f = event(ctx);
+		setClassName(f, debugLoggerName);
+		prepareMsg(f, INFO_LEVEL, null, null, msg);
+		LogEventWriter.write(debugLoggerName, debugLogger, Level.INFO, format(msg, args), f);
+	}
+
+	// the fields the metrics record shows, after the Stopwatch put the targets in
+	private static void recordLatency(EventFields f, StatusCodeEnum statusCode, long nanos) {
+		String code = statusCode == null ? null : statusCode.toString();
+		if (MetricHistograms.isEnabled())
+			MetricHistograms.record(f.get(SERVICE_NAME), f.get(TARGET_ENTITY), f.get(TARGET_SERVICE_NAME), code, nanos);
+		if (PrometheusExporter.isRunning())
+			PrometheusExporter.recordMetric(f.get(SERVICE_NAME), f.get(TARGET_ENTITY), f.get(TARGET_SERVICE_NAME), code,
+					nanos);
+	}
+
+	private static void recordRequest(EventFields f, StatusCodeEnum statusCode, long nanos) {
+		PrometheusExporter.recordAudit(f.get(SERVICE_NAME), statusCode == null ? null : statusCode.toString(), nanos);
+	}
+
+	private static EventFields.Event event(EcompLogContext ctx) {
+		EventFields.Event f = new EventFields.Event();
+		if (ctx != null)
+			ctx.putInto(f);
+		return f;
+	}
+
+	// the message text as the EELF logger formats it
+	private String format(EcompMessageEnum msg, String[] args) {
+		return EELFResourceManager.format(msg, normalizeArray(args));
+	}
+
+	// endregion
+
 	// region Setters Public
 
 	public static void setLogContext(String reqId, String svcId) {
@@ -502,6 +848,8 @@ public class EcompLogger {
 	// region Setters Private
 
 	private LogCategoryEnum msg2cat(EcompMessageEnum msg) {
+		if (msg instanceof EcompMessageDescriptor)
+			return ((EcompMessageDescriptor) msg).getCategory();
 		String s = EELFResourceManager.getIdentifier(msg);
 		char c = 'W';
 		if (s != null && s.length() > 0)
@@ -535,48 +883,54 @@ public class EcompLogger {
 	// region Helpers
 
 	private void prepareMsg(LogCategoryEnum logCategoryEnum, EcompMessageEnum msg) {
-		prepareMsg(getSeverityLevel(logCategoryEnum), null, null, msg);
+		prepareMsg(EventFields.THREAD_MDC, getSeverityLevel(logCategoryEnum), null, null, msg);
 	}
 
 	private void prepareMsg(String loggingLevel, EcompMessageEnum msg) {
-		prepareMsg(loggingLevel, null, null, msg);
+		prepareMsg(EventFields.THREAD_MDC, loggingLevel, null, null, msg);
 	}
 
-	private void prepareMsg(String loggingLevel, String serviceNamep, String timer, EcompMessageEnum msg) {
-		String reqId = MDC.get(REQUEST_ID);
-		String svcId = MDC.get(SERVICE_INSTANCE_ID);
+	private void prepareMsg(EventFields f, String loggingLevel, String serviceNamep, String timer,
+			EcompMessageEnum msg) {
+		String reqId = f.get(REQUEST_ID);
+		String svcId = f.get(SERVICE_INSTANCE_ID);
 
 		if (reqId == null || reqId.isEmpty()) {
-			MDC.put(REQUEST_ID, UUID.randomUUID().toString());
+			f.put(REQUEST_ID, requestIdGenerator.newRequestId());
 		}
 
 		if (svcId == null || svcId.isEmpty()) {
-			MDC.put(SERVICE_INSTANCE_ID, DUMMY_SERVICE_INSTANCE_VALUE);
+			f.put(SERVICE_INSTANCE_ID, DUMMY_SERVICE_INSTANCE_VALUE);
 		}
 
 		if (timer != null) {
-			MDC.put(TIMER, timer);
+			f.put(TIMER, timer);
 		} else {
-			MDC.remove(TIMER);
+			f.remove(TIMER);
 		}
 
-		String instance = MDC.get(INSTANCE_UUID);
+		EcompSubComponentInstance.Identity identity = EcompSubComponentInstance.getIdentity();
+		String instance = f.get(INSTANCE_UUID);
 		if (instance == null || instance.isEmpty()) {
-			MDC.put(INSTANCE_UUID, EcompSubComponentInstance.getUuid());
+			f.put(INSTANCE_UUID, identity.getUuid());
 		}
 
-		MDC.put(ALERT_SEVERITY, getSeverityLevel(loggingLevel));
-		MDC.put(SERVER_IP, EcompSubComponentInstance.getServerIP());
-		MDC.put(FQDN, EcompSubComponentInstance.getServerName());
-
-		if (null != msg) {
-			MDC.put(RESPONSE_CODE, EELFResourceManager.getIdentifier(msg));
-			MDC.put(RESPONSE_DESCRIPTION, EELFResourceManager.getDescription(msg));
+		f.put(ALERT_SEVERITY, getSeverityLevel(loggingLevel));
+		f.put(SERVER_IP, identity.getServerIP());
+		f.put(FQDN, identity.getServerName());
+
+		if (msg instanceof EcompMessageDescriptor) {
+			EcompMessageDescriptor d = (EcompMessageDescriptor) msg;
+			f.put(RESPONSE_CODE, d.getIdentifier());
+			f.put(RESPONSE_DESCRIPTION, d.getDescription());
+		} else if (null != msg) {
+			f.put(RESPONSE_CODE, EELFResourceManager.getIdentifier(msg));
+			f.put(RESPONSE_DESCRIPTION, EELFResourceManager.getDescription(msg));
 		}
 	}
 
 	private void prepareMsg(String loggingLevel) {
-		prepareMsg(loggingLevel, null, null, null);
+		prepareMsg(EventFields.THREAD_MDC, loggingLevel, null, null, null);
 	}
 
 	private String getSeverityLevel(String loggingLevel) {
@@ -621,13 +975,36 @@ public class EcompLogger {
 		return severity;
 	}
 
-	private String normalize(String input) {
+	/**
+	 * @return input with the '|' field separators replaced by '!' and the line breaks by " - ", input itself if it has
+	 *         neither
+	 */
+	static String normalize(String input) {
 		if (input == null) {
 			return null;
 		}
-		String result = input.replace('|', '!');
-		result = result.replace("\n", " - ");
-		return result;
+		int n = input.length();
+		int i = 0;
+		while (i < n) {
+			char c = input.charAt(i);
+			if (c == '|' || c == '\n')
+				break;
+			i++;
+		}
+		if (i == n)
+			return input;
+		StringBuilder b = new StringBuilder(n + 16);
+		b.append(input, 0, i);
+		for (; i < n; i++) {
+			char c = input.charAt(i);
+			if (c == '|')
+				b.append('!');
+			else if (c == '\n')
+				b.append(" - ");
+			else
+				b.append(c);
+		}
+		return b.toString();
 	}
 
 	private String[] normalizeArray(String[] args) {
@@ -637,22 +1014,42 @@ public class EcompLogger {
 		return args;
 	}
 
-	private String getNormalizedStackTrace(Throwable t) {
-		StringWriter sw = new StringWriter();
-		PrintWriter pw = new PrintWriter(sw);
-		t.printStackTrace(pw);
-		return sw.toString().replace('|', '!').replace("\n", " - ");
-	}
-
 	// endregion
 
 	public void newRequestId() {
-		String uuid = UUID.randomUUID().toString();
-		MDC.put(REQUEST_ID, uuid);
+		MDC.put(REQUEST_ID, requestIdGenerator.newRequestId());
+	}
+
+	public static RequestIdGenerator getRequestIdGenerator() {
+		return requestIdGenerator;
+	}
+
+	/**
+	 * Replace the generator of the request ids filled in for requests that arrive without one
+	 */
+	public static void setRequestIdGenerator(RequestIdGenerator generator) {
+		requestIdGenerator = generator == null ? new TimeOrderedRequestIdGenerator() : generator;
+	}
+
+	private static RequestIdGenerator initialRequestIdGenerator() {
+		String value = System.getProperty(REQUEST_ID_GENERATOR_PROPERTY);
+		if (value != null && !value.trim().isEmpty()) {
+			value = value.trim();
+			if ("random".equalsIgnoreCase(value))
+				return new RandomRequestIdGenerator();
+			try {
+				return (RequestIdGenerator) Class.forName(value).newInstance();
+			} catch (Exception e) {
+				// called while the class is initialized, not through the loggers of the class
+				java.util.logging.Logger.getLogger(EcompLogger.class.getName()).log(java.util.logging.Level.WARNING,
+						"Invalid " + REQUEST_ID_GENERATOR_PROPERTY + " " + value, e);
+			}
+		}
+		return new TimeOrderedRequestIdGenerator();
 	}
 
 	public boolean isDebugEnabled() {
-		return errorLogger.isDebugEnabled();
+		return errorLevels.isEnabled(Level.DEBUG);
 	}
 
 	public void setRemoteHost(String remote) {
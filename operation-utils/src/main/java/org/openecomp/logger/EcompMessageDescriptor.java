@@ -0,0 +1,44 @@
+
+/*-
+ * ============LICENSE_START==========================================
+ * OPENECOMP - DCAE
+ * ===================================================================
+ * Copyright (c) 2017 AT&T Intellectual Property. All rights reserved.
+ * ===================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END============================================
+ */
+	
+package org.openecomp.logger;
+
+/**
+ * A message enum that carries its resolved metadata, so the logger does not have to look it up in the EELF resource
+ * bundle on every event. Enums generated by YamlToJava implement it with values computed at build time.
+ */
+public interface EcompMessageDescriptor extends EcompMessageEnum {
+
+	/**
+	 * @return the resource identifier, e.g. ECOMP-GENERAL-ERROR-5403E (the ResponseCode field)
+	 */
+	String getIdentifier();
+
+	/**
+	 * @return the description text (the ResponseDescription field)
+	 */
+	String getDescription();
+
+	/**
+	 * @return the category given by the classification letter of the error code
+	 */
+	LogCategoryEnum getCategory();
+}
@@ -0,0 +1,97 @@
+
+/*-
+ * ============LICENSE_START==========================================
+ * OPENECOMP - DCAE
+ * ===================================================================
+ * Copyright (c) 2017 AT&T Intellectual Property. All rights reserved.
+ * ===================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END============================================
+ */
+	
+package org.openecomp.logger;
+
+import java.nio.charset.Charset;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.encoder.LayoutWrappingEncoder;
+
+/**
+ * Encoder for the EELF line formats, see {@link EelfLayout}. The text of a record is laid out into a per thread buffer
+ * and, when it is all ASCII and the charset is ASCII compatible, copied into the returned bytes directly, without the
+ * intermediate String and charset encoder of a pattern encoder. The bytes are the same as the pattern encoder's.
+ */
+public class EelfEncoder extends LayoutWrappingEncoder<ILoggingEvent> {
+
+	private String schema;
+
+	private Charset effectiveCharset;
+
+	private boolean asciiCompatible;
+
+	public String getSchema() {
+		return schema;
+	}
+
+	/**
+	 * @param schema
+	 *            the {@link EelfLayout.Schema} name: general, audit, metrics, error or debug
+	 */
+	public void setSchema(String schema) {
+		this.schema = schema;
+	}
+
+	@Override
+	public void start() {
+		if (layout == null) {
+			if (schema == null) {
+				addError("No schema set for the EelfEncoder");
+				return;
+			}
+			EelfLayout l = new EelfLayout();
+			l.setContext(getContext());
+			try {
+				l.setSchema(schema);
+			} catch (IllegalArgumentException e) {
+				addError("Unknown EELF schema [" + schema + "]");
+				return;
+			}
+			l.start();
+			layout = l;
+		}
+		effectiveCharset = getCharset() != null ? getCharset() : Charset.defaultCharset();
+		String name = effectiveCharset.name();
+		asciiCompatible = name.equals("UTF-8") || name.equals("US-ASCII") || name.equals("ISO-8859-1");
+		super.start();
+	}
+
+	@Override
+	public byte[] encode(ILoggingEvent event) {
+		if (!(layout instanceof EelfLayout))
+			return super.encode(event);
+		StringBuilder b = EelfLayout.buffer();
+		((EelfLayout) layout).layout(event, b);
+		if (asciiCompatible) {
+			int n = b.length();
+			byte[] bytes = new byte[n];
+			for (int i = 0; i < n; i++) {
+				char c = b.charAt(i);
+				if (c >= 0x80)
+					return b.toString().getBytes(effectiveCharset);
+				bytes[i] = (byte) c;
+			}
+			return bytes;
+		}
+		return b.toString().getBytes(effectiveCharset);
+	}
+}
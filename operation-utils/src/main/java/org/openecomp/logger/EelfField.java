@@ -0,0 +1,59 @@
+
+/*-
+ * ============LICENSE_START==========================================
+ * OPENECOMP - DCAE
+ * ===================================================================
+ * Copyright (c) 2017 AT&T Intellectual Property. All rights reserved.
+ * ===================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END============================================
+ */
+	
+package org.openecomp.logger;
+
+/**
+ * The per request fields of the EELF records that an {@link EcompLogContext} can carry, with their MDC keys.
+ */
+public enum EelfField {
+
+	REQUEST_ID(EcompLogger.REQUEST_ID),
+	SERVICE_INSTANCE_ID(EcompLogger.SERVICE_INSTANCE_ID),
+	SERVICE_NAME(EcompLogger.SERVICE_NAME),
+	PARTNER_NAME(EcompLogger.PARTNER_NAME),
+	THREAD_ID(EcompLogger.THREAD_ID),
+	TARGET_ENTITY(EcompLogger.TARGET_ENTITY),
+	TARGET_SERVICE_NAME(EcompLogger.TARGET_SERVICE_NAME),
+	REMOTE_HOST(EcompLogger.REMOTE_HOST),
+	USER(EcompLogger.USER),
+	INSTANCE_UUID(EcompLogger.INSTANCE_UUID),
+	VIRTUAL_SERVER_NAME("VirtualServerName"),
+	PROCESS_KEY("ProcessKey"),
+	TARGET_VIRTUAL_ENTITY("TargetVirtualEntity"),
+	CUSTOM_FIELD_1("CustomField1"),
+	CUSTOM_FIELD_2("CustomField2"),
+	CUSTOM_FIELD_3("CustomField3"),
+	CUSTOM_FIELD_4("CustomField4");
+
+	private final String key;
+
+	private EelfField(String key) {
+		this.key = key;
+	}
+
+	/**
+	 * @return the MDC key, as used in the log patterns
+	 */
+	public String getKey() {
+		return key;
+	}
+}
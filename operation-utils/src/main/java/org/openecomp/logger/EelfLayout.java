@@ -0,0 +1,240 @@
+
+/*-
+ * ============LICENSE_START==========================================
+ * OPENECOMP - DCAE
+ * ===================================================================
+ * Copyright (c) 2017 AT&T Intellectual Property. All rights reserved.
+ * ===================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END============================================
+ */
+	
+package org.openecomp.logger;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.Map;
+import java.util.TimeZone;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.pattern.ExtendedThrowableProxyConverter;
+import ch.qos.logback.classic.pattern.ThrowableProxyConverter;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.CoreConstants;
+import ch.qos.logback.core.LayoutBase;
+
+/**
+ * The EELF line formats as a layout that knows its fields at compile time, producing the same text as the
+ * PatternLayout with the auditLoggerPattern, metricsLoggerPattern, errorLoggerPattern, debugLoggerPattern or
+ * defaultPattern of logback.xml:
+ * 
+ * <pre>
+ * &lt;encoder class="org.openecomp.logger.EelfEncoder"&gt;
+ *     &lt;schema&gt;audit&lt;/schema&gt;
+ * &lt;/encoder&gt;
+ * </pre>
+ * 
+ * A record is written in one pass over the columns of its {@link Schema}: an MDC field is a single get on the MDC map
+ * of the event, with no converter chain, the date is rendered once per second, and the text goes into a per thread
+ * buffer. As with PatternLayout, the stack trace of an exception logged with the event follows the line.
+ */
+public class EelfLayout extends LayoutBase<ILoggingEvent> {
+
+	/**
+	 * The columns of each EELF line format, the MDC keys plus {@link #DATE}, {@link #THREAD} and {@link #LEVEL}
+	 */
+	public enum Schema {
+		GENERAL(DATE, "RequestId", "ServiceInstanceId", THREAD, "VirtualServerName", "ServiceName", "InstanceUUID",
+				LEVEL, "AlertSeverity", "ServerIPAddress", "ServerFQDN", "RemoteHost", "ClassName", "Timer"),
+
+		AUDIT("BeginTimestamp", "EndTimestamp", "RequestId", "ServiceInstanceId", THREAD, "VirtualServerName",
+				"ServiceName", "PartnerName", "StatusCode", "ResponseCode", "ResponseDescription", "InstanceUUID", LEVEL,
+				"AlertSeverity", "ServerIPAddress", "ElapsedTime", "ServerFQDN", "RemoteHost", "ClassName", "Unused",
+				"ProcessKey", "CustomField1", "CustomField2", "CustomField3", "CustomField4"),
+
+		METRICS("BeginTimestamp", "EndTimestamp", "RequestId", "ServiceInstanceId", THREAD, "VirtualServerName",
+				"ServiceName", "PartnerName", "TargetEntity", "TargetServiceName", "StatusCode", "ResponseCode",
+				"ResponseDescription", "InstanceUUID", LEVEL, "AlertSeverity", "ServerIPAddress", "ElapsedTime",
+				"ServerFQDN", "RemoteHost", "ClassName", "Unused", "ProcessKey", "TargetVirtualEntity", "CustomField1",
+				"CustomField2", "CustomField3", "CustomField4"),
+
+		ERROR(DATE, "RequestId", THREAD, "ServiceName", "PartnerName", "TargetEntity", "TargetServiceName", LEVEL,
+				"ErrorCode", "ErrorDescription"),
+
+		DEBUG(DATE, "RequestId");
+
+		private final String[] columns;
+
+		Schema(String... columns) {
+			this.columns = columns;
+		}
+
+		/**
+		 * @return true if the format renders the MDC field
+		 */
+		public boolean uses(String mdcKey) {
+			for (String c : columns) {
+				if (c.equals(mdcKey))
+					return true;
+			}
+			return false;
+		}
+	}
+
+	// the columns that are not MDC fields, never valid MDC keys
+	static final String DATE = "%date";
+	static final String THREAD = "%thread";
+	static final String LEVEL = "%level";
+
+	private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+	private static final int INITIAL_CAPACITY = 512;
+
+	// a thread that once wrote a huge record does not keep a huge buffer
+	private static final int MAX_KEPT_CAPACITY = 16 * 1024;
+
+	private static final ThreadLocal<StringBuilder> buffer = new ThreadLocal<StringBuilder>() {
+		@Override
+		protected StringBuilder initialValue() {
+			return new StringBuilder(INITIAL_CAPACITY);
+		}
+	};
+
+	private static final class Second {
+		final long second;
+		final String prefix;
+
+		Second(long second, String prefix) {
+			this.second = second;
+			this.prefix = prefix;
+		}
+	}
+
+	// an immutable snapshot, a thread losing a race just renders its own
+	private static volatile Second second = new Second(Long.MIN_VALUE, null);
+
+	private Schema schema;
+
+	// what PatternLayout appends to a pattern without an exception conversion
+	private ThrowableProxyConverter throwableConverter;
+
+	public Schema getSchema() {
+		return schema;
+	}
+
+	/**
+	 * @param name
+	 *            the {@link Schema} name, in any case
+	 */
+	public void setSchema(String name) {
+		this.schema = Schema.valueOf(name.trim().toUpperCase());
+	}
+
+	@Override
+	public void start() {
+		if (schema == null) {
+			addError("No schema set for the EelfLayout");
+			return;
+		}
+		LoggerContext lc = getContext() instanceof LoggerContext ? (LoggerContext) getContext() : null;
+		throwableConverter = lc != null && lc.isPackagingDataEnabled() ? new ExtendedThrowableProxyConverter()
+				: new ThrowableProxyConverter();
+		throwableConverter.setContext(getContext());
+		throwableConverter.start();
+		super.start();
+	}
+
+	@Override
+	public String doLayout(ILoggingEvent event) {
+		StringBuilder b = buffer();
+		layout(event, b);
+		return b.toString();
+	}
+
+	/**
+	 * @return the per thread buffer, empty
+	 */
+	static StringBuilder buffer() {
+		StringBuilder b = buffer.get();
+		if (b.capacity() > MAX_KEPT_CAPACITY) {
+			b = new StringBuilder(INITIAL_CAPACITY);
+			buffer.set(b);
+		}
+		b.setLength(0);
+		return b;
+	}
+
+	/**
+	 * Append the text of the record to b
+	 */
+	void layout(ILoggingEvent event, StringBuilder b) {
+		Map<String, String> mdc = event.getMDCPropertyMap();
+		for (String column : schema.columns) {
+			if (column == DATE) {
+				appendDate(b, event.getTimeStamp());
+			} else if (column == THREAD) {
+				b.append(event.getThreadName());
+			} else if (column == LEVEL) {
+				b.append(event.getLevel().toString());
+			} else if (mdc != null) {
+				String value = mdc.get(column);
+				if (value != null)
+					b.append(value);
+			}
+			b.append('|');
+		}
+		b.append(' ').append(event.getFormattedMessage()).append(CoreConstants.LINE_SEPARATOR);
+		if (event.getThrowableProxy() != null)
+			b.append(throwableConverter.convert(event));
+	}
+
+	// %date{ISO8601,UTC}: yyyy-MM-dd HH:mm:ss,SSS
+	private static void appendDate(StringBuilder b, long millis) {
+		long sec = millis / 1000;
+		int ms = (int) (millis % 1000);
+		if (ms < 0) {
+			sec--;
+			ms += 1000;
+		}
+		Second s = second;
+		if (s.second != sec) {
+			s = new Second(sec, prefix(sec * 1000));
+			second = s;
+		}
+		b.append(s.prefix);
+		b.append((char) ('0' + ms / 100));
+		b.append((char) ('0' + ms / 10 % 10));
+		b.append((char) ('0' + ms % 10));
+	}
+
+	// "yyyy-MM-dd HH:mm:ss," of the given second
+	private static String prefix(long millis) {
+		Calendar c = new GregorianCalendar(UTC);
+		c.setTimeInMillis(millis);
+		StringBuilder b = new StringBuilder(20);
+		pad(b, c.get(Calendar.YEAR), 4).append('-');
+		pad(b, c.get(Calendar.MONTH) + 1, 2).append('-');
+		pad(b, c.get(Calendar.DAY_OF_MONTH), 2).append(' ');
+		pad(b, c.get(Calendar.HOUR_OF_DAY), 2).append(':');
+		pad(b, c.get(Calendar.MINUTE), 2).append(':');
+		pad(b, c.get(Calendar.SECOND), 2).append(',');
+		return b.toString();
+	}
+
+	private static StringBuilder pad(StringBuilder b, int value, int width) {
+		String s = Integer.toString(value);
+		for (int i = s.length(); i < width; i++)
+			b.append('0');
+		return b.append(s);
+	}
+}
@@ -0,0 +1,118 @@
+
+/*-
+ * ============LICENSE_START==========================================
+ * OPENECOMP - DCAE
+ * ===================================================================
+ * Copyright (c) 2017 AT&T Intellectual Property. All rights reserved.
+ * ===================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END============================================
+ */
+	
+package org.openecomp.logger;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.MDC;
+
+/**
+ * Where the fields of a record are assembled: the MDC of the thread for the classic EcompLogger methods, or a map
+ * owned by a single event for the methods taking an {@link EcompLogContext}.
+ */
+abstract class EventFields {
+
+	/**
+	 * Reads and writes the MDC of the calling thread
+	 */
+	static final EventFields THREAD_MDC = new EventFields() {
+		@Override
+		String get(String key) {
+			return MDC.get(key);
+		}
+
+		@Override
+		void put(String key, String value) {
+			MDC.put(key, value);
+		}
+
+		@Override
+		void remove(String key) {
+			MDC.remove(key);
+		}
+
+		@Override
+		Map<String, String> copy() {
+			Map<String, String> mdc = MDC.getCopyOfContextMap();
+			return mdc != null ? mdc : new HashMap<String, String>();
+		}
+	};
+
+	abstract String get(String key);
+
+	abstract void put(String key, String value);
+
+	abstract void remove(String key);
+
+	/**
+	 * @return a copy of the fields as they are now
+	 */
+	abstract Map<String, String> copy();
+
+	/**
+	 * The fields of one record: a private copy of the MDC of the thread, taken when the event is created, that the
+	 * event then adds to. The MDC itself is never modified.
+	 */
+	static final class Event extends EventFields {
+		private final Map<String, String> fields;
+
+		Event() {
+			Map<String, String> mdc = MDC.getCopyOfContextMap();
+			fields = mdc != null ? mdc : new HashMap<String, String>();
+		}
+
+		/**
+		 * An event with the given fields, regardless of the MDC of the thread
+		 */
+		Event(Map<String, String> fields) {
+			this.fields = fields;
+		}
+
+		@Override
+		String get(String key) {
+			return fields.get(key);
+		}
+
+		@Override
+		void put(String key, String value) {
+			fields.put(key, value);
+		}
+
+		@Override
+		void remove(String key) {
+			fields.remove(key);
+		}
+
+		@Override
+		Map<String, String> copy() {
+			return new HashMap<String, String>(fields);
+		}
+
+		/**
+		 * @return the complete MDC map of the record
+		 */
+		Map<String, String> fields() {
+			return fields;
+		}
+	}
+}
@@ -0,0 +1,360 @@
+
+/*-
+ * ============LICENSE_START==========================================
+ * OPENECOMP - DCAE
+ * ===================================================================
+ * Copyright (c) 2017 AT&T Intellectual Property. All rights reserved.
+ * ===================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END============================================
+ */
+	
+package org.openecomp.logger;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rate limits and sampling of the error, warn, info and debug events, per {@link EcompMessageEnum}, so that a single
+ * noisy message cannot flood the logs. A message can be given
+ * <ul>
+ * <li>a rate limit: a token bucket refilled at perSecond tokens a second that holds up to burst tokens, and</li>
+ * <li>a sample rate: the fraction of its events that are kept before the rate limit applies.</li>
+ * </ul>
+ * The limit can be kept per PartnerName instead of for the message as a whole. Each check is a compare-and-set on the
+ * bucket, no lock is taken. Messages without a limit cost a map lookup, and nothing at all while no limit is set.
+ * 
+ * The number of suppressed events is reported every interval as an ECOMP-LOGGER-EVENTS-SUPPRESSED warning, one per
+ * message and partner that had events suppressed.
+ * 
+ * Audit events are exempt unless {@link #setAuditExempt(boolean)} says otherwise. Metric events are never limited,
+ * see {@link MetricHistograms#setRawLineSampling(int)} to thin them out.
+ * 
+ * System properties:
+ * <ul>
+ * <li>org.openecomp.logger.limits: the limits, separated by ';', each the enum class and constant name followed by
+ * ':'-separated options rate=perSecond, burst=n, sample=fraction and partner, e.g.
+ * org.openecomp.logger.GenericMessagesMessageEnum.ECOMP_LOGGER_TOP_ON_EMPTY_STACK:rate=5:burst=20:partner</li>
+ * <li>org.openecomp.logger.limits.interval: seconds between suppression reports, 60 by default</li>
+ * <li>org.openecomp.logger.limits.audit: true to limit audit events too</li>
+ * </ul>
+ */
+public final class EventLimits {
+
+	public static final String LIMITS_PROPERTY = "org.openecomp.logger.limits";
+
+	public static final String INTERVAL_PROPERTY = "org.openecomp.logger.limits.interval";
+
+	public static final String AUDIT_PROPERTY = "org.openecomp.logger.limits.audit";
+
+	/**
+	 * Partners beyond this many per message share a single bucket
+	 */
+	static final int MAX_PARTNERS = 1000;
+
+	private static final String OTHER_PARTNERS = "other";
+
+	private static final ConcurrentMap<EcompMessageEnum, Rule> rules = new ConcurrentHashMap<EcompMessageEnum, Rule>();
+
+	private static volatile boolean active;
+
+	private static volatile boolean auditExempt = !Boolean.getBoolean(AUDIT_PROPERTY);
+
+	private static long lastReport = System.currentTimeMillis();
+
+	private static ScheduledExecutorService reporter;
+
+	static {
+		String limits = System.getProperty(LIMITS_PROPERTY);
+		if (limits != null)
+			configure(limits);
+	}
+
+	private EventLimits() {
+	}
+
+	/**
+	 * Limit msg to perSecond events a second, with bursts of up to burst events
+	 * 
+	 * @param perPartner
+	 *            keep a separate limit for every PartnerName
+	 */
+	public static void setRateLimit(EcompMessageEnum msg, double perSecond, int burst, boolean perPartner) {
+		Rule r = rules.get(msg);
+		put(msg, perSecond, burst, r == null ? 1.0 : r.sample, perPartner);
+	}
+
+	public static void setRateLimit(EcompMessageEnum msg, double perSecond, int burst) {
+		setRateLimit(msg, perSecond, burst, false);
+	}
+
+	/**
+	 * Keep only the given fraction of the events of msg, picked at random
+	 */
+	public static void setSampling(EcompMessageEnum msg, double fraction) {
+		Rule r = rules.get(msg);
+		if (r == null)
+			put(msg, 0, 0, fraction, false);
+		else
+			put(msg, r.perSecond, r.burst, fraction, r.perPartner);
+	}
+
+	/**
+	 * Remove the limit and the sampling of msg. Events suppressed so far are still reported.
+	 */
+	public static synchronized void remove(EcompMessageEnum msg) {
+		Rule r = rules.remove(msg);
+		if (r != null)
+			r.report(msg, elapsed());
+		active = !rules.isEmpty();
+	}
+
+	public static synchronized void clear() {
+		report();
+		rules.clear();
+		active = false;
+	}
+
+	public static boolean isAuditExempt() {
+		return auditExempt;
+	}
+
+	/**
+	 * @param exempt
+	 *            false to apply the limits of a message to the audit events recorded with it too
+	 */
+	public static void setAuditExempt(boolean exempt) {
+		auditExempt = exempt;
+	}
+
+	/**
+	 * Report the events suppressed since the last report now
+	 * 
+	 * @return the number of events suppressed
+	 */
+	public static synchronized long report() {
+		long elapsed = elapsed();
+		long total = 0;
+		for (Map.Entry<EcompMessageEnum, Rule> e : rules.entrySet())
+			total += e.getValue().report(e.getKey(), elapsed);
+		return total;
+	}
+
+	/**
+	 * @return true if the event of msg is to be written, the partner is taken from the fields when the limit is per
+	 *         partner
+	 */
+	static boolean allow(EcompMessageEnum msg, EventFields f) {
+		if (!active)
+			return true;
+		Rule r = rules.get(msg);
+		return r == null || r.allow(r.perPartner ? f.get(EcompLogger.PARTNER_NAME) : null);
+	}
+
+	/**
+	 * As {@link #allow(EcompMessageEnum, EventFields)} with the partner given by the caller, the MDC's if null
+	 */
+	static boolean allow(EcompMessageEnum msg, String partnerName) {
+		if (!active)
+			return true;
+		Rule r = rules.get(msg);
+		if (r == null)
+			return true;
+		if (r.perPartner && (partnerName == null || partnerName.isEmpty()))
+			partnerName = EventFields.THREAD_MDC.get(EcompLogger.PARTNER_NAME);
+		return r.allow(r.perPartner ? partnerName : null);
+	}
+
+	/**
+	 * As {@link #allow(EcompMessageEnum, EventFields)} for an event taking its fields from ctx over the MDC's
+	 */
+	static boolean allow(EcompMessageEnum msg, EcompLogContext ctx) {
+		if (!active)
+			return true;
+		return allow(msg, ctx == null ? null : ctx.get(EelfField.PARTNER_NAME));
+	}
+
+	static boolean allowAudit(EcompMessageEnum msg, EventFields f) {
+		return auditExempt || allow(msg, f);
+	}
+
+	private static synchronized void put(EcompMessageEnum msg, double perSecond, int burst, double sample,
+			boolean perPartner) {
+		if (msg == null)
+			throw new IllegalArgumentException("msg");
+		if (perSecond < 0 || perSecond > 0 && burst < 1)
+			throw new IllegalArgumentException("rate " + perSecond + "/s with burst " + burst);
+		if (sample < 0 || sample > 1)
+			throw new IllegalArgumentException("sample " + sample);
+		Rule old = rules.put(msg, new Rule(perSecond, burst, sample, perPartner));
+		if (old != null)
+			old.report(msg, elapsed());
+		active = true;
+		startReporter();
+	}
+
+	private static void startReporter() {
+		if (reporter != null)
+			return;
+		long interval = Long.getLong(INTERVAL_PROPERTY, 60);
+		reporter = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "ecomp-logger-limits");
+				t.setDaemon(true);
+				return t;
+			}
+		});
+		reporter.scheduleAtFixedRate(new Runnable() {
+			@Override
+			public void run() {
+				report();
+			}
+		}, interval, interval, TimeUnit.SECONDS);
+	}
+
+	private static long elapsed() {
+		long now = System.currentTimeMillis();
+		long elapsed = now - lastReport;
+		lastReport = now;
+		return elapsed;
+	}
+
+	private static void configure(String limits) {
+		for (String entry : limits.split(";")) {
+			String[] options = entry.trim().split(":");
+			EcompMessageEnum msg = MessageEnums.resolve(options[0].trim());
+			if (msg == null)
+				continue;
+			double perSecond = 0, sample = 1.0;
+			int burst = 1;
+			boolean perPartner = false;
+			try {
+				for (int i = 1; i < options.length; i++) {
+					String o = options[i].trim();
+					if (o.equals("partner"))
+						perPartner = true;
+					else if (o.startsWith("rate="))
+						perSecond = Double.parseDouble(o.substring(5));
+					else if (o.startsWith("burst="))
+						burst = Integer.parseInt(o.substring(6));
+					else if (o.startsWith("sample="))
+						sample = Double.parseDouble(o.substring(7));
+				}
+				put(msg, perSecond, Math.max(burst, 1), sample, perPartner);
+			} catch (IllegalArgumentException e) {
+				// a malformed limit is left out, the others still apply
+			}
+		}
+	}
+
+	private static final class Rule {
+		final double perSecond;
+		final int burst;
+		final double sample;
+		final boolean perPartner;
+		final Bucket shared;
+		final ConcurrentMap<String, Bucket> partners;
+
+		Rule(double perSecond, int burst, double sample, boolean perPartner) {
+			this.perSecond = perSecond;
+			this.burst = burst;
+			this.sample = sample;
+			this.perPartner = perPartner;
+			this.shared = new Bucket(perSecond, burst);
+			this.partners = perPartner ? new ConcurrentHashMap<String, Bucket>() : null;
+		}
+
+		boolean allow(String partnerName) {
+			Bucket b = perPartner ? bucket(partnerName) : shared;
+			if (sample < 1.0 && ThreadLocalRandom.current().nextDouble() >= sample || !b.tryAcquire()) {
+				b.suppressed.incrementAndGet();
+				return false;
+			}
+			return true;
+		}
+
+		private Bucket bucket(String partnerName) {
+			if (partnerName == null || partnerName.isEmpty())
+				partnerName = "UNKNOWN";
+			Bucket b = partners.get(partnerName);
+			if (b == null) {
+				if (partners.size() >= MAX_PARTNERS)
+					partnerName = OTHER_PARTNERS;
+				b = partners.get(partnerName);
+				if (b == null) {
+					Bucket created = new Bucket(perSecond, burst);
+					b = partners.putIfAbsent(partnerName, created);
+					if (b == null)
+						b = created;
+				}
+			}
+			return b;
+		}
+
+		long report(EcompMessageEnum msg, long elapsed) {
+			if (!perPartner)
+				return report(msg, "*", shared, elapsed);
+			long total = 0;
+			for (Map.Entry<String, Bucket> e : partners.entrySet())
+				total += report(msg, e.getKey(), e.getValue(), elapsed);
+			return total;
+		}
+
+		private static long report(EcompMessageEnum msg, String partnerName, Bucket b, long elapsed) {
+			long n = b.suppressed.getAndSet(0);
+			if (n > 0)
+				EcompLogger.getEcompLogger().warn(GenericMessagesMessageEnum.ECOMP_LOGGER_EVENTS_SUPPRESSED,
+						Long.toString(n), msg.toString(), partnerName, Long.toString(elapsed));
+			return n;
+		}
+	}
+
+	/**
+	 * A token bucket kept as the time the bucket will be full again (the generic cell rate algorithm): an event is let
+	 * through if that time is less than burst - 1 token intervals away, and moves it one interval later.
+	 */
+	private static final class Bucket {
+		final long interval;
+		final long tolerance;
+		final AtomicLong full;
+		final AtomicLong suppressed = new AtomicLong();
+
+		Bucket(double perSecond, int burst) {
+			this.interval = perSecond > 0 ? Math.max((long) (TimeUnit.SECONDS.toNanos(1) / perSecond), 1L) : 0;
+			this.tolerance = interval * (burst - 1);
+			this.full = new AtomicLong(System.nanoTime());
+		}
+
+		boolean tryAcquire() {
+			if (interval == 0)
+				return true;
+			long now = System.nanoTime();
+			for (;;) {
+				long t = full.get();
+				long from = t - now < 0 ? now : t;
+				if (from - now > tolerance)
+					return false;
+				if (full.compareAndSet(t, from + interval))
+					return true;
+			}
+		}
+	}
+}
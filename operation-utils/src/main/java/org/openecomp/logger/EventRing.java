@@ -0,0 +1,329 @@
+
+/*-
+ * ============LICENSE_START==========================================
+ * OPENECOMP - DCAE
+ * ===================================================================
+ * Copyright (c) 2017 AT&T Intellectual Property. All rights reserved.
+ * ===================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END============================================
+ */
+	
+package org.openecomp.logger;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import com.att.eelf.configuration.EELFLogger;
+import com.att.eelf.i18n.EELFResourceManager;
+
+/**
+ * Hands audit and metrics records to a background thread through a preallocated ring of slots. The calling thread
+ * only stores the references making up the record (logger, message, arguments, the MDC map of the thread as logback
+ * holds it, time and thread name) into a slot. The background thread formats the message and passes the record to the
+ * appenders, which should then be the file appenders themselves rather than an AsyncAppender in front of them.
+ * 
+ * Producers claim slots with a single atomic increment, there is no lock on the way in. When the ring is full the
+ * producer waits for the consumer, records are never dropped. Only used with logback and without turbo filters, in
+ * any other set up the records are written by the calling thread as before.
+ * 
+ * The ring is started with {@link #start()} or by setting the org.openecomp.logger.ringBuffer system property to
+ * true. A shutdown hook drains it for at most org.openecomp.logger.ringBuffer.drainTimeout milliseconds.
+ */
+public final class EventRing {
+
+	public static final String ENABLED_PROPERTY = "org.openecomp.logger.ringBuffer";
+
+	public static final String CAPACITY_PROPERTY = "org.openecomp.logger.ringBuffer.capacity";
+
+	public static final String DRAIN_TIMEOUT_PROPERTY = "org.openecomp.logger.ringBuffer.drainTimeout";
+
+	static final int DEFAULT_CAPACITY = 8192;
+
+	static final long DEFAULT_DRAIN_TIMEOUT = 5000;
+
+	private static final long LEFT_OVER_TIMEOUT_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+	private static volatile EventRing active;
+
+	// one hook draining whichever ring is active at exit
+	private static boolean hooked;
+
+	static {
+		if (Boolean.getBoolean(ENABLED_PROPERTY))
+			start(Integer.getInteger(CAPACITY_PROPERTY, DEFAULT_CAPACITY));
+	}
+
+	private static final class Slot {
+		// the sequence the slot was last published for, written last by the producer
+		volatile long published = -1;
+
+		String loggerName;
+		EELFLogger.Level level;
+		EcompMessageEnum msg;
+		String[] args;
+		Map<String, String> mdc;
+		long timeStamp;
+		String threadName;
+	}
+
+	private final Slot[] slots;
+
+	private final int mask;
+
+	// the next sequence handed to a producer
+	private final AtomicLong claimed = new AtomicLong();
+
+	// every sequence below this one has been taken out of its slot
+	private final AtomicLong consumed = new AtomicLong();
+
+	private final Thread consumer;
+
+	private volatile boolean stopping;
+
+	// set by the consumer before it parks for want of records, producers unpark it
+	private volatile boolean sleeping;
+
+	private volatile boolean stopped;
+
+	private volatile long drainDeadline;
+
+	// the next sequence to take, only used by the consumer
+	private long next;
+
+	private EventRing(int capacity) {
+		int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+		slots = new Slot[size];
+		for (int i = 0; i < size; i++)
+			slots[i] = new Slot();
+		mask = size - 1;
+		consumer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				consume();
+			}
+		}, "ecomp-logger-ring");
+		consumer.setDaemon(true);
+	}
+
+	/**
+	 * Start the ring with the configured capacity, if it is not running yet
+	 */
+	public static void start() {
+		start(Integer.getInteger(CAPACITY_PROPERTY, DEFAULT_CAPACITY));
+	}
+
+	/**
+	 * @param capacity
+	 *            number of slots, rounded up to a power of two
+	 */
+	public static synchronized void start(int capacity) {
+		if (active != null)
+			return;
+		EventRing ring = new EventRing(capacity);
+		ring.consumer.start();
+		if (!hooked) {
+			Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+				@Override
+				public void run() {
+					EventRing r = active;
+					if (r != null)
+						r.drain(Long.getLong(DRAIN_TIMEOUT_PROPERTY, DEFAULT_DRAIN_TIMEOUT), TimeUnit.MILLISECONDS);
+				}
+			}, "ecomp-logger-ring-drain"));
+			hooked = true;
+		}
+		active = ring;
+	}
+
+	/**
+	 * Stop taking records and wait for the records already taken to be written. Records logged afterwards are written
+	 * by the calling thread.
+	 * 
+	 * @return true if all records were written within the timeout
+	 */
+	public static synchronized boolean shutdown(long timeout, TimeUnit unit) {
+		EventRing ring = active;
+		if (ring == null)
+			return true;
+		active = null;
+		return ring.drain(timeout, unit);
+	}
+
+	public static boolean isRunning() {
+		return active != null;
+	}
+
+	/**
+	 * Hand a record to the ring. The MDC map must not change afterwards.
+	 * 
+	 * @return false if the record was not taken and must be written by the caller
+	 */
+	static boolean publish(String loggerName, EELFLogger.Level level, EcompMessageEnum msg, String[] args,
+			Map<String, String> mdc) {
+		EventRing ring = active;
+		// a caller waiting for the commit needs the appenders to run on its thread
+		if (ring == null || DurableCommit.isTracking() || !LogEventWriter.canAppend())
+			return false;
+		return ring.put(loggerName, level, msg, args, mdc);
+	}
+
+	/**
+	 * Hand a record whose fields are in the MDC of the calling thread to the ring
+	 * 
+	 * @return false if the record was not taken and must be written by the caller
+	 */
+	static boolean publish(String loggerName, EELFLogger.Level level, EcompMessageEnum msg, String[] args) {
+		EventRing ring = active;
+		// a caller waiting for the commit needs the appenders to run on its thread
+		if (ring == null || DurableCommit.isTracking() || !LogEventWriter.canAppend())
+			return false;
+		return ring.put(loggerName, level, msg, args, LogEventWriter.mdcSnapshot());
+	}
+
+	private boolean put(String loggerName, EELFLogger.Level level, EcompMessageEnum msg, String[] args,
+			Map<String, String> mdc) {
+		if (stopping || stopped)
+			return false;
+		long seq = claimed.getAndIncrement();
+		int spins = 0;
+		while (seq - consumed.get() >= slots.length) {
+			// the consumer is gone, nobody will free the slot
+			if (stopped)
+				return false;
+			if (++spins < 100)
+				Thread.yield();
+			else
+				LockSupport.parkNanos(10000);
+		}
+		Slot slot = slots[(int) seq & mask];
+		// checked again after the claim, so that the consumer either waits for this slot or the caller writes
+		if (stopping || stopped) {
+			slot.msg = null;
+			slot.published = seq;
+			wake();
+			return false;
+		}
+		slot.loggerName = loggerName;
+		slot.level = level;
+		slot.msg = msg;
+		slot.args = args;
+		slot.mdc = mdc;
+		slot.timeStamp = System.currentTimeMillis();
+		slot.threadName = Thread.currentThread().getName();
+		slot.published = seq;
+		wake();
+		return true;
+	}
+
+	private void wake() {
+		if (sleeping)
+			LockSupport.unpark(consumer);
+	}
+
+	private void consume() {
+		try {
+			consumeLoop();
+		} finally {
+			// also when an Error ends the thread, producers then write their records themselves
+			stopped = true;
+			if (!stopping) {
+				LoggerSettings.warn("The ecomp-logger-ring thread died, records are written by the logging threads.");
+				// the records published before the producers saw it, a slot claimed but left empty is given up
+				long deadline = System.nanoTime() + LEFT_OVER_TIMEOUT_NANOS;
+				while (next != claimed.get() && System.nanoTime() - deadline < 0) {
+					if (!takeNext())
+						Thread.yield();
+				}
+			}
+		}
+	}
+
+	private void consumeLoop() {
+		int idle = 0;
+		while (true) {
+			if (takeNext()) {
+				idle = 0;
+				continue;
+			}
+			Slot slot = slots[(int) next & mask];
+			if (stopping && (next == claimed.get() || System.nanoTime() - drainDeadline > 0))
+				break;
+			// back off gradually, then sleep until a producer publishes
+			if (idle < 1000)
+				idle++;
+			if (idle < 100) {
+				Thread.yield();
+			} else if (idle < 1000) {
+				LockSupport.parkNanos(10000);
+			} else if (stopping) {
+				// waiting for the claimed slots until the drain deadline
+				LockSupport.parkNanos(1000000);
+			} else {
+				sleeping = true;
+				// a producer publishing before it saw the flag is seen here
+				if (slot.published != next)
+					LockSupport.park(this);
+				sleeping = false;
+			}
+		}
+	}
+
+	/**
+	 * Write the record of the next slot
+	 * 
+	 * @return false if it is not published yet
+	 */
+	private boolean takeNext() {
+		Slot slot = slots[(int) next & mask];
+		if (slot.published != next)
+			return false;
+		String loggerName = slot.loggerName;
+		EELFLogger.Level level = slot.level;
+		EcompMessageEnum msg = slot.msg;
+		String[] args = slot.args;
+		Map<String, String> mdc = slot.mdc;
+		long timeStamp = slot.timeStamp;
+		String threadName = slot.threadName;
+		slot.loggerName = null;
+		slot.msg = null;
+		slot.args = null;
+		slot.mdc = null;
+		slot.threadName = null;
+		consumed.lazySet(++next);
+		// given up by a producer that saw the ring stopping
+		if (msg == null)
+			return true;
+		try {
+			LogEventWriter.append(loggerName, level, EELFResourceManager.format(msg, args), mdc, timeStamp,
+					threadName);
+		} catch (RuntimeException e) {
+			// an appender failing must not stop the consumer, logback reports appender errors itself
+		}
+		return true;
+	}
+
+	private boolean drain(long timeout, TimeUnit unit) {
+		drainDeadline = System.nanoTime() + unit.toNanos(timeout);
+		stopping = true;
+		LockSupport.unpark(consumer);
+		try {
+			consumer.join(Math.max(1, unit.toMillis(timeout)));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return consumed.get() == claimed.get();
+	}
+}
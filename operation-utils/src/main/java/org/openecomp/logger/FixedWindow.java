@@ -0,0 +1,119 @@
+
+/*-
+ * ============LICENSE_START==========================================
+ * OPENECOMP - DCAE
+ * ===================================================================
+ * Copyright (c) 2017 AT&T Intellectual Property. All rights reserved.
+ * ===================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END============================================
+ */
+	
+package org.openecomp.logger;
+
+import java.io.File;
+
+import ch.qos.logback.core.spi.ContextAware;
+
+/**
+ * The naming of rolled log files used by the appenders of this package, the same as the FixedWindowRollingPolicy of
+ * logback: the file is renamed to the first index of fileNamePattern, after each older file has moved up by one and
+ * the one at maxIndex was deleted.
+ */
+final class FixedWindow {
+
+	private final ContextAware owner;
+
+	private String file;
+
+	private String fileNamePattern;
+
+	private int minIndex = 1;
+
+	private int maxIndex = 20;
+
+	FixedWindow(ContextAware owner) {
+		this.owner = owner;
+	}
+
+	void setFileNamePattern(String fileNamePattern) {
+		this.fileNamePattern = fileNamePattern;
+	}
+
+	void setMinIndex(int minIndex) {
+		this.minIndex = minIndex;
+	}
+
+	void setMaxIndex(int maxIndex) {
+		this.maxIndex = maxIndex;
+	}
+
+	/**
+	 * @return false if the settings are unusable, the errors were reported to the owner
+	 */
+	boolean start(String file, String name) {
+		this.file = file;
+		if (maxIndex < minIndex) {
+			owner.addWarn("maxIndex below minIndex for the appender named [" + name + "], rolled files are not kept.");
+			maxIndex = minIndex - 1;
+		}
+		if (fileNamePattern == null)
+			fileNamePattern = defaultPattern(file);
+		if (!fileNamePattern.contains("%i")) {
+			owner.addError("fileNamePattern of the appender named [" + name + "] has no %i.");
+			return false;
+		}
+		if (fileNamePattern.endsWith(".zip") || fileNamePattern.endsWith(".gz")) {
+			owner.addWarn("Rolled files of the appender named [" + name + "] are not compressed.");
+			fileNamePattern = fileNamePattern.substring(0, fileNamePattern.lastIndexOf('.'));
+		}
+		return true;
+	}
+
+	/**
+	 * Move the file, which must be closed, out of the way
+	 * 
+	 * @return false if the file is still in place, the failure was reported to the owner
+	 */
+	boolean roll() {
+		if (maxIndex < minIndex) {
+			if (new File(file).delete())
+				return true;
+			owner.addWarn("Failed to delete [" + file + "].");
+			return false;
+		}
+		File oldest = new File(name(maxIndex));
+		if (oldest.exists() && !oldest.delete())
+			owner.addWarn("Failed to delete [" + oldest + "].");
+		for (int i = maxIndex - 1; i >= minIndex; i--) {
+			File f = new File(name(i));
+			if (f.exists() && !f.renameTo(new File(name(i + 1))))
+				owner.addWarn("Failed to rename [" + f + "].");
+		}
+		if (new File(file).renameTo(new File(name(minIndex))))
+			return true;
+		owner.addWarn("Failed to rename [" + file + "].");
+		return false;
+	}
+
+	private String name(int i) {
+		return fileNamePattern.replace("%i", String.valueOf(i));
+	}
+
+	// the index goes before the extension
+	static String defaultPattern(String file) {
+		int slash = Math.max(file.lastIndexOf('/'), file.lastIndexOf(File.separatorChar));
+		int dot = file.lastIndexOf('.');
+		return dot > slash ? file.substring(0, dot) + ".%i" + file.substring(dot) : file + ".%i";
+	}
+}
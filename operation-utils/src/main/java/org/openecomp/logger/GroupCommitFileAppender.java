@@ -0,0 +1,358 @@
+
+/*-
+ * ============LICENSE_START==========================================
+ * OPENECOMP - DCAE
+ * ===================================================================
+ * Copyright (c) 2017 AT&T Intellectual Property. All rights reserved.
+ * ===================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END============================================
+ */
+	
+package org.openecomp.logger;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.encoder.Encoder;
+import ch.qos.logback.core.status.ErrorStatus;
+import ch.qos.logback.core.util.Duration;
+import ch.qos.logback.core.util.FileSize;
+
+/**
+ * Appender for records that must survive a crash, the audit log in particular. Records from all threads are gathered
+ * into batches; a committer thread writes each batch with one gathering write and forces it to disk with one fsync.
+ * A batch is committed when it holds maxBatchSize records or maxBatchDelay after its first record, whichever comes
+ * first, and records keep gathering in the next batch while one is being forced.
+ * 
+ * <pre>
+ * &lt;appender name="EELFAudit" class="org.openecomp.logger.GroupCommitFileAppender"&gt;
+ *     &lt;file&gt;${logDirectory}/${auditLogName}.log&lt;/file&gt;
+ *     &lt;maxBatchSize&gt;256&lt;/maxBatchSize&gt;
+ *     &lt;maxBatchDelay&gt;2 milliseconds&lt;/maxBatchDelay&gt;
+ *     &lt;maxFileSize&gt;2500KB&lt;/maxFileSize&gt;
+ *     &lt;encoder&gt;
+ *         &lt;pattern&gt;${auditLoggerPattern}&lt;/pattern&gt;
+ *     &lt;/encoder&gt;
+ * &lt;/appender&gt;
+ * </pre>
+ * 
+ * Records are never dropped: when a full batch is waiting for the committer, logging threads wait. The EcompLogger
+ * recordAuditEventEndDurably methods return a Future completing when the record is on disk. For that the appender
+ * must be attached to the logger itself, not behind an AsyncAppender. Files are rolled at maxFileSize between batches,
+ * named like the FixedWindowRollingPolicy (fileNamePattern, minIndex, maxIndex), and are not compressed.
+ */
+public class GroupCommitFileAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
+
+	private final FixedWindow window = new FixedWindow(this);
+
+	private final ReentrantLock lock = new ReentrantLock();
+
+	// the committer waits for records, and for the open batch to fill up
+	private final Condition filled = lock.newCondition();
+
+	// logging threads wait for a full batch to be taken
+	private final Condition taken = lock.newCondition();
+
+	private String file;
+
+	private long maxFileSize = 2500 * FileSize.KB_COEFFICIENT;
+
+	private int maxBatchSize = 256;
+
+	private long maxBatchDelayNanos = TimeUnit.MILLISECONDS.toNanos(2);
+
+	private Encoder<ILoggingEvent> encoder;
+
+	private Batch open;
+
+	private boolean stopping;
+
+	private Thread committer;
+
+	// only touched by the committer once started
+	private FileChannel channel;
+
+	/**
+	 * Records written together with one fsync, and the future of their commit
+	 */
+	private static final class Batch implements Future<Void> {
+		final ByteBuffer[] records;
+		int size;
+		long bytes;
+		final long opened = System.nanoTime();
+
+		private final CountDownLatch committed = new CountDownLatch(1);
+		private volatile IOException failure;
+
+		Batch(int capacity) {
+			records = new ByteBuffer[capacity];
+		}
+
+		void add(byte[] record) {
+			records[size++] = ByteBuffer.wrap(record);
+			bytes += record.length;
+		}
+
+		void complete(IOException e) {
+			failure = e;
+			committed.countDown();
+		}
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			return false;
+		}
+
+		@Override
+		public boolean isCancelled() {
+			return false;
+		}
+
+		@Override
+		public boolean isDone() {
+			return committed.getCount() == 0;
+		}
+
+		@Override
+		public Void get() throws InterruptedException, ExecutionException {
+			committed.await();
+			return result();
+		}
+
+		@Override
+		public Void get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException,
+				TimeoutException {
+			if (!committed.await(timeout, unit))
+				throw new TimeoutException();
+			return result();
+		}
+
+		private Void result() throws ExecutionException {
+			if (failure != null)
+				throw new ExecutionException(failure);
+			return null;
+		}
+	}
+
+	public void setFile(String file) {
+		this.file = file;
+	}
+
+	public String getFile() {
+		return file;
+	}
+
+	/**
+	 * @param maxFileSize
+	 *            size at which the file is rolled, 0 to never roll it
+	 */
+	public void setMaxFileSize(FileSize maxFileSize) {
+		this.maxFileSize = maxFileSize.getSize();
+	}
+
+	public void setFileNamePattern(String fileNamePattern) {
+		window.setFileNamePattern(fileNamePattern);
+	}
+
+	public void setMinIndex(int minIndex) {
+		window.setMinIndex(minIndex);
+	}
+
+	public void setMaxIndex(int maxIndex) {
+		window.setMaxIndex(maxIndex);
+	}
+
+	public void setMaxBatchSize(int maxBatchSize) {
+		this.maxBatchSize = maxBatchSize;
+	}
+
+	/**
+	 * @param maxBatchDelay
+	 *            how long the first record of a batch waits for more records before the batch is committed
+	 */
+	public void setMaxBatchDelay(Duration maxBatchDelay) {
+		this.maxBatchDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxBatchDelay.getMilliseconds());
+	}
+
+	public void setEncoder(Encoder<ILoggingEvent> encoder) {
+		this.encoder = encoder;
+	}
+
+	public Encoder<ILoggingEvent> getEncoder() {
+		return encoder;
+	}
+
+	@Override
+	public void start() {
+		int errors = 0;
+		if (file == null) {
+			addError("No file set for the appender named [" + name + "].");
+			errors++;
+		}
+		if (encoder == null) {
+			addError("No encoder set for the appender named [" + name + "].");
+			errors++;
+		}
+		if (maxBatchSize < 1) {
+			addError("maxBatchSize of the appender named [" + name + "] must be at least 1.");
+			errors++;
+		}
+		if (file != null && maxFileSize > 0 && !window.start(file, name))
+			errors++;
+		if (errors > 0)
+			return;
+		try {
+			File f = new File(file);
+			if (f.getParentFile() != null)
+				f.getParentFile().mkdirs();
+			channel = open();
+		} catch (IOException e) {
+			addStatus(new ErrorStatus("Failed to open [" + file + "].", this, e));
+			return;
+		}
+		stopping = false;
+		committer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				commitLoop();
+			}
+		}, "ecomp-logger-commit-" + name);
+		committer.setDaemon(true);
+		committer.start();
+		super.start();
+	}
+
+	/**
+	 * Commits the records appended so far before returning
+	 */
+	@Override
+	public void stop() {
+		if (!isStarted())
+			return;
+		super.stop();
+		lock.lock();
+		try {
+			stopping = true;
+			filled.signal();
+			taken.signalAll();
+		} finally {
+			lock.unlock();
+		}
+		try {
+			committer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		try {
+			channel.close();
+		} catch (IOException e) {
+			addStatus(new ErrorStatus("Failed to close [" + file + "].", this, e));
+		}
+	}
+
+	@Override
+	protected void append(ILoggingEvent event) {
+		byte[] record = encoder.encode(event);
+		Batch batch;
+		lock.lock();
+		try {
+			while (open != null && open.size == maxBatchSize && !stopping)
+				taken.awaitUninterruptibly();
+			if (stopping)
+				return;
+			if (open == null) {
+				open = new Batch(maxBatchSize);
+				filled.signal();
+			}
+			open.add(record);
+			if (open.size == maxBatchSize)
+				filled.signal();
+			batch = open;
+		} finally {
+			lock.unlock();
+		}
+		DurableCommit.register(batch);
+	}
+
+	private void commitLoop() {
+		while (true) {
+			Batch batch;
+			lock.lock();
+			try {
+				while (open == null && !stopping)
+					filled.awaitUninterruptibly();
+				if (open == null)
+					return;
+				long wait;
+				while (open.size < maxBatchSize && !stopping
+						&& (wait = open.opened + maxBatchDelayNanos - System.nanoTime()) > 0) {
+					try {
+						filled.awaitNanos(wait);
+					} catch (InterruptedException e) {
+						// commit what there is
+						break;
+					}
+				}
+				batch = open;
+				open = null;
+				taken.signalAll();
+			} finally {
+				lock.unlock();
+			}
+			commit(batch);
+		}
+	}
+
+	private void commit(Batch batch) {
+		try {
+			// the file could not be reopened after the last roll
+			if (!channel.isOpen())
+				channel = open();
+			if (maxFileSize > 0 && channel.size() > 0 && channel.size() + batch.bytes > maxFileSize) {
+				channel.close();
+				window.roll();
+				channel = open();
+			}
+			ByteBuffer[] records = batch.records;
+			int first = 0;
+			while (first < batch.size) {
+				channel.write(records, first, batch.size - first);
+				while (first < batch.size && !records[first].hasRemaining())
+					first++;
+			}
+			channel.force(false);
+			batch.complete(null);
+		} catch (IOException e) {
+			addStatus(new ErrorStatus("Failed to commit " + batch.size + " records to [" + file + "].", this, e));
+			batch.complete(e);
+		}
+	}
+
+	@SuppressWarnings("resource")
+	private FileChannel open() throws IOException {
+		return new FileOutputStream(file, true).getChannel();
+	}
+}
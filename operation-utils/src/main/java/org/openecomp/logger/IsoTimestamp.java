@@ -0,0 +1,143 @@
+
+/*-
+ * ============LICENSE_START==========================================
+ * OPENECOMP - DCAE
+ * ===================================================================
+ * Copyright (c) 2017 AT&T Intellectual Property. All rights reserved.
+ * ===================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END============================================
+ */
+	
+package org.openecomp.logger;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+/**
+ * Renders epoch milliseconds in the Stopwatch ISO format (yyyy-MM-dd'T'HH:mm:ss.SSSZ, UTC), producing the same text
+ * as the SimpleDateFormat it replaces.
+ * 
+ * Lock-free and safe for any number of threads: the date and time up to the seconds is rendered once per second and
+ * shared, the milliseconds are filled into a per thread buffer, and the last rendered value is returned as is when
+ * asked for the same millisecond again.
+ */
+public final class IsoTimestamp {
+
+	private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+	private static final char[] ZONE = "+0000".toCharArray();
+
+	private static final class Second {
+		final long second;
+		final char[] prefix;
+
+		Second(long second, char[] prefix) {
+			this.second = second;
+			this.prefix = prefix;
+		}
+	}
+
+	private static final class Stamp {
+		final long millis;
+		final String text;
+
+		Stamp(long millis, String text) {
+			this.millis = millis;
+			this.text = text;
+		}
+	}
+
+	// both are immutable snapshots, a thread losing a race just renders its own
+	private static volatile Second second = new Second(Long.MIN_VALUE, null);
+	private static volatile Stamp last = new Stamp(Long.MIN_VALUE, null);
+
+	private static final ThreadLocal<char[]> buffer = new ThreadLocal<char[]>() {
+		@Override
+		protected char[] initialValue() {
+			return new char[32];
+		}
+	};
+
+	private IsoTimestamp() {
+	}
+
+	/**
+	 * @return the current time in the ISO format
+	 */
+	public static String now() {
+		return format(System.currentTimeMillis());
+	}
+
+	/**
+	 * @param millis
+	 *            milliseconds since the epoch
+	 * @return the time in the ISO format
+	 */
+	public static String format(long millis) {
+		Stamp stamp = last;
+		if (stamp.millis == millis)
+			return stamp.text;
+		long sec = millis / 1000;
+		int ms = (int) (millis % 1000);
+		if (ms < 0) {
+			sec--;
+			ms += 1000;
+		}
+		Second s = second;
+		if (s.second != sec) {
+			s = new Second(sec, prefix(sec * 1000));
+			second = s;
+		}
+		char[] prefix = s.prefix;
+		int length = prefix.length + 3 + ZONE.length;
+		char[] b = buffer.get();
+		if (b.length < length) {
+			b = new char[length];
+			buffer.set(b);
+		}
+		System.arraycopy(prefix, 0, b, 0, prefix.length);
+		int i = prefix.length;
+		b[i++] = (char) ('0' + ms / 100);
+		b[i++] = (char) ('0' + ms / 10 % 10);
+		b[i++] = (char) ('0' + ms % 10);
+		System.arraycopy(ZONE, 0, b, i, ZONE.length);
+		String text = new String(b, 0, length);
+		last = new Stamp(millis, text);
+		return text;
+	}
+
+	// "yyyy-MM-dd'T'HH:mm:ss." of the given second
+	private static char[] prefix(long millis) {
+		Calendar c = new GregorianCalendar(UTC);
+		c.setTimeInMillis(millis);
+		StringBuilder b = new StringBuilder(24);
+		pad(b, c.get(Calendar.YEAR), 4).append('-');
+		pad(b, c.get(Calendar.MONTH) + 1, 2).append('-');
+		pad(b, c.get(Calendar.DAY_OF_MONTH), 2).append('T');
+		pad(b, c.get(Calendar.HOUR_OF_DAY), 2).append(':');
+		pad(b, c.get(Calendar.MINUTE), 2).append(':');
+		pad(b, c.get(Calendar.SECOND), 2).append('.');
+		char[] prefix = new char[b.length()];
+		b.getChars(0, prefix.length, prefix, 0);
+		return prefix;
+	}
+
+	private static StringBuilder pad(StringBuilder b, int value, int width) {
+		String s = Integer.toString(value);
+		for (int i = s.length(); i < width; i++)
+			b.append('0');
+		return b.append(s);
+	}
+}
@@ -0,0 +1,144 @@
+
+/*-
+ * ============LICENSE_START==========================================
+ * OPENECOMP - DCAE
+ * ===================================================================
+ * Copyright (c) 2017 AT&T Intellectual Property. All rights reserved.
+ * ===================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END============================================
+ */
+	
+package org.openecomp.logger;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Concurrent latency recorder with log-linear buckets in the manner of HdrHistogram: exact below 64 microseconds, and
+ * 32 buckets per power of two above, so that a reported value is within about 3% of the recorded one. Values up to
+ * about 38 hours are told apart, longer ones are counted in the last bucket.
+ * 
+ * Recording is a single atomic increment. {@link #intervalSnapshot()} takes the counts recorded since the previous
+ * snapshot, each bucket is read and reset atomically so no value is lost or counted twice. The max is reset on its
+ * own after the buckets: a value recorded while a snapshot is taken can be counted in one interval and be the max of
+ * the other.
+ */
+public final class LatencyHistogram {
+
+	private static final int LINEAR = 64;
+
+	private static final int SUB_BUCKETS = 32;
+
+	// 2^37 microseconds
+	private static final int MAX_SHIFT = 31;
+
+	static final int BUCKETS = LINEAR + MAX_SHIFT * SUB_BUCKETS;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * @param micros
+	 *            the latency in microseconds, negative values count as 0
+	 */
+	public void record(long micros) {
+		if (micros < 0)
+			micros = 0;
+		counts.incrementAndGet(bucket(micros));
+		long m = max.get();
+		while (micros > m && !max.compareAndSet(m, micros))
+			m = max.get();
+	}
+
+	/**
+	 * @return the values recorded since the previous interval snapshot
+	 */
+	public Snapshot intervalSnapshot() {
+		long[] c = new long[BUCKETS];
+		long total = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			if (counts.get(i) != 0) {
+				c[i] = counts.getAndSet(i, 0);
+				total += c[i];
+			}
+		}
+		return new Snapshot(c, total, max.getAndSet(0));
+	}
+
+	static int bucket(long micros) {
+		if (micros < LINEAR)
+			return (int) micros;
+		int shift = 63 - Long.numberOfLeadingZeros(micros) - 5;
+		if (shift > MAX_SHIFT)
+			return BUCKETS - 1;
+		return LINEAR + (shift - 1) * SUB_BUCKETS + (int) (micros >>> shift) - SUB_BUCKETS;
+	}
+
+	// the largest value counted in the bucket
+	static long highestValue(int bucket) {
+		if (bucket < LINEAR)
+			return bucket;
+		int shift = (bucket - LINEAR) / SUB_BUCKETS + 1;
+		long m = (bucket - LINEAR) % SUB_BUCKETS + SUB_BUCKETS;
+		return ((m + 1) << shift) - 1;
+	}
+
+	/**
+	 * Immutable counts of one interval, all values in microseconds
+	 */
+	public static final class Snapshot {
+		private final long[] counts;
+		private final long count;
+		private final long max;
+
+		Snapshot(long[] counts, long count, long max) {
+			this.counts = counts;
+			this.count = count;
+			this.max = max;
+		}
+
+		public long getCount() {
+			return count;
+		}
+
+		/**
+		 * @return the exact largest value, 0 when nothing was recorded. It can be off by one interval, see
+		 *         {@link LatencyHistogram}.
+		 */
+		public long getMax() {
+			return max;
+		}
+
+		/**
+		 * @param percentile
+		 *            between 0 and 100
+		 * @return the value below or at which the given percentage of the values are, 0 when nothing was recorded
+		 */
+		public long getValueAtPercentile(double percentile) {
+			if (count == 0)
+				return 0;
+			long rank = (long) Math.ceil(Math.min(Math.max(percentile, 0), 100) / 100 * count);
+			if (rank < 1)
+				rank = 1;
+			long seen = 0;
+			for (int i = 0; i < counts.length; i++) {
+				seen += counts[i];
+				if (seen >= rank)
+					return Math.min(highestValue(i), max);
+			}
+			return max;
+		}
+	}
+}
@@ -0,0 +1,135 @@
+
+/*-
+ * ============LICENSE_START==========================================
+ * OPENECOMP - DCAE
+ * ===================================================================
+ * Copyright (c) 2017 AT&T Intellectual Property. All rights reserved.
+ * ===================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END============================================
+ */
+	
+package org.openecomp.logger;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import org.slf4j.MDC;
+
+/**
+ * The logging state of a thread, its MDC and its Stopwatch watches, captured so that it can be carried to the thread
+ * running a task on its behalf. Without it a task submitted to a pool logs without the RequestId and the other fields
+ * of the request that submitted it.
+ * 
+ * <pre>
+ * LogContextSnapshot snapshot = LogContextSnapshot.capture();
+ * ... on another thread
+ * LogContextSnapshot previous = snapshot.attach();
+ * try {
+ * 	...
+ * } finally {
+ * 	previous.restore();
+ * }
+ * </pre>
+ * 
+ * The task works on copies: what it adds to the MDC or the watches it starts stay with the worker thread, and are
+ * discarded when the worker's own state is put back. {@link ContextExecutors} wraps executors to do this for every
+ * task.
+ */
+public final class LogContextSnapshot {
+
+	// null when the MDC was empty
+	private final Map<String, String> mdc;
+
+	// null when a thread being put back had no watches
+	private final Stopwatch.StopwatchStateStack watches;
+
+	// the stack object of a thread being put back, rather than a copy handed to another thread
+	private final boolean owned;
+
+	private LogContextSnapshot(Map<String, String> mdc, Stopwatch.StopwatchStateStack watches, boolean owned) {
+		this.mdc = mdc;
+		this.watches = watches;
+		this.owned = owned;
+	}
+
+	/**
+	 * @return the logging state of the calling thread
+	 */
+	public static LogContextSnapshot capture() {
+		Map<String, String> mdc = MDC.getCopyOfContextMap();
+		return new LogContextSnapshot(mdc == null || mdc.isEmpty() ? null : mdc, Stopwatch.captureStack(), false);
+	}
+
+	/**
+	 * Make this the logging state of the calling thread
+	 * 
+	 * @return the state the thread had before, restore it when done
+	 */
+	public LogContextSnapshot attach() {
+		Map<String, String> previousMdc = MDC.getCopyOfContextMap();
+		return new LogContextSnapshot(previousMdc, install(), true);
+	}
+
+	/**
+	 * Make this the logging state of the calling thread, dropping the state it had. Unlike {@link #attach()} nothing
+	 * is captured, for putting back the state returned by attach.
+	 */
+	public void restore() {
+		install();
+	}
+
+	private Stopwatch.StopwatchStateStack install() {
+		// a snapshot can be attached any number of times (periodic tasks), each gets its own watches
+		Stopwatch.StopwatchStateStack previousWatches = Stopwatch.swapStack(owned ? watches : watches.copy());
+		if (mdc != null)
+			MDC.setContextMap(mdc);
+		else
+			MDC.clear();
+		return previousWatches;
+	}
+
+	/**
+	 * @return a task running the given one in this logging state
+	 */
+	public Runnable wrap(final Runnable task) {
+		return new Runnable() {
+			@Override
+			public void run() {
+				LogContextSnapshot previous = attach();
+				try {
+					task.run();
+				} finally {
+					previous.restore();
+				}
+			}
+		};
+	}
+
+	/**
+	 * @return a task running the given one in this logging state
+	 */
+	public <V> Callable<V> wrap(final Callable<V> task) {
+		return new Callable<V>() {
+			@Override
+			public V call() throws Exception {
+				LogContextSnapshot previous = attach();
+				try {
+					return task.call();
+				} finally {
+					previous.restore();
+				}
+			}
+		};
+	}
+}
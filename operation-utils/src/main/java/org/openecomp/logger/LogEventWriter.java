@@ -0,0 +1,170 @@
+
+/*-
+ * ============LICENSE_START==========================================
+ * OPENECOMP - DCAE
+ * ===================================================================
+ * Copyright (c) 2017 AT&T Intellectual Property. All rights reserved.
+ * ===================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END============================================
+ */
+	
+package org.openecomp.logger;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.slf4j.spi.MDCAdapter;
+
+import com.att.eelf.configuration.EELFLogger;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+
+/**
+ * Writes a record whose fields were assembled in an {@link EventFields.Event} without going through the MDC of the
+ * thread. With logback the event is handed to the appenders with the map of the event as its MDC. With other SLF4J
+ * bindings that map replaces the MDC for the duration of the call, and the previous MDC is restored afterwards.
+ */
+final class LogEventWriter {
+
+	private LogEventWriter() {
+	}
+
+	/**
+	 * @return true if records can be handed to the logback appenders directly, from any thread
+	 */
+	static boolean canAppend() {
+		return LoggerSettings.isLogback() && Logback.canAppend();
+	}
+
+	/**
+	 * The MDC of the calling thread without copying it. logback copies its map on the next write to the MDC, so the
+	 * returned map is not modified afterwards. Only valid when {@link #canAppend()}.
+	 * 
+	 * @return the MDC map, null when the MDC is empty
+	 */
+	static Map<String, String> mdcSnapshot() {
+		return Logback.mdc();
+	}
+
+	/**
+	 * Hand a record assembled on another thread to the appenders. Only valid when {@link #canAppend()}.
+	 */
+	static void append(String loggerName, EELFLogger.Level level, String message, Map<String, String> mdc,
+			long timeStamp, String threadName) {
+		Logback.append(loggerName, level, message, mdc, timeStamp, threadName);
+	}
+
+	/**
+	 * @param message
+	 *            the formatted message, as the EELF logger would have produced it; level must be enabled
+	 */
+	static void write(String loggerName, EELFLogger logger, EELFLogger.Level level, String message,
+			EventFields.Event event) {
+		if (LoggerSettings.isLogback() && Logback.write(loggerName, level, message, event.fields()))
+			return;
+		Map<String, String> previous = MDC.getCopyOfContextMap();
+		MDC.setContextMap(event.fields());
+		try {
+			switch (level) {
+			case ERROR:
+				logger.error(message);
+				break;
+			case WARN:
+				logger.warn(message);
+				break;
+			case INFO:
+				logger.info(message);
+				break;
+			case DEBUG:
+				logger.debug(message);
+				break;
+			case TRACE:
+				logger.trace(message);
+				break;
+			default:
+				break;
+			}
+		} finally {
+			if (previous != null)
+				MDC.setContextMap(previous);
+			else
+				MDC.clear();
+		}
+	}
+
+	/**
+	 * Everything touching logback classes, kept apart so a different SLF4J binding never loads them.
+	 */
+	private static final class Logback {
+
+		// what the slf4j calls of the EELF logger record as the caller boundary
+		private static final String FQCN = Logger.class.getName();
+
+		static boolean write(String loggerName, EELFLogger.Level level, String message, Map<String, String> mdc) {
+			LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+			// turbo filters only run inside the logback Logger methods, let those handle the record
+			if (!context.getTurboFilterList().isEmpty())
+				return false;
+			Logger logger = context.getLogger(loggerName);
+			LoggingEvent event = new LoggingEvent(FQCN, logger, toLevel(level), message, null, null);
+			event.setMDCPropertyMap(mdc);
+			logger.callAppenders(event);
+			return true;
+		}
+
+		static boolean canAppend() {
+			return ((LoggerContext) LoggerFactory.getILoggerFactory()).getTurboFilterList().isEmpty();
+		}
+
+		static Map<String, String> mdc() {
+			MDCAdapter adapter = MDC.getMDCAdapter();
+			if (adapter instanceof LogbackMDCAdapter)
+				return ((LogbackMDCAdapter) adapter).getPropertyMap();
+			return MDC.getCopyOfContextMap();
+		}
+
+		static void append(String loggerName, EELFLogger.Level level, String message, Map<String, String> mdc,
+				long timeStamp, String threadName) {
+			Logger logger = ((LoggerContext) LoggerFactory.getILoggerFactory()).getLogger(loggerName);
+			LoggingEvent event = new LoggingEvent(FQCN, logger, toLevel(level), message, null, null);
+			event.setMDCPropertyMap(mdc != null ? mdc : Collections.<String, String> emptyMap());
+			event.setTimeStamp(timeStamp);
+			event.setThreadName(threadName);
+			logger.callAppenders(event);
+		}
+
+		private static Level toLevel(EELFLogger.Level level) {
+			switch (level) {
+			case ERROR:
+				return Level.ERROR;
+			case WARN:
+				return Level.WARN;
+			case INFO:
+				return Level.INFO;
+			case DEBUG:
+				return Level.DEBUG;
+			case TRACE:
+				return Level.TRACE;
+			default:
+				return Level.OFF;
+			}
+		}
+	}
+}
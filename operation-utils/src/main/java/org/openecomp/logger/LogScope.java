@@ -0,0 +1,127 @@
+
+/*-
+ * ============LICENSE_START==========================================
+ * OPENECOMP - DCAE
+ * ===================================================================
+ * Copyright (c) 2017 AT&T Intellectual Property. All rights reserved.
+ * ===================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END============================================
+ */
+	
+package org.openecomp.logger;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import org.slf4j.MDC;
+
+/**
+ * Runs a unit of work, typically one request on its own virtual thread, with logging state of its own. The task
+ * starts with no Stopwatch watches and the MDC of the caller. When it ends, its watches are dropped and the MDC of the
+ * caller is put back, so nothing the task logged stays reachable from the thread.
+ * 
+ * <pre>
+ * Thread.ofVirtual().start(() -&gt; LogScope.run(() -&gt; handle(request)));
+ * </pre>
+ * 
+ * With the {@link Backend#SCOPED_VALUE} backend (Java 25 and later) the watches are bound to the scope in a
+ * ScopedValue instead of a ThreadLocal. The MDC belongs to SLF4J and stays thread local, code on virtual threads can
+ * avoid it altogether by logging with an {@link EcompLogContext}.
+ * 
+ * The backend can be selected with the org.openecomp.logger.contextBackend system property.
+ */
+public final class LogScope {
+
+	public enum Backend {
+		/**
+		 * The watches are kept in a ThreadLocal, as outside a scope
+		 */
+		THREAD_LOCAL,
+		/**
+		 * The watches are bound to the scope in a ScopedValue, needs Java 25
+		 */
+		SCOPED_VALUE
+	}
+
+	public static final String BACKEND_PROPERTY = "org.openecomp.logger.contextBackend";
+
+	private static volatile Backend backend = initialBackend();
+
+	private LogScope() {
+	}
+
+	/**
+	 * @return true when the ScopedValue backend is available on this runtime
+	 */
+	public static boolean isScopedValueSupported() {
+		return WatchStore.scopedValues();
+	}
+
+	public static Backend getBackend() {
+		return backend;
+	}
+
+	/**
+	 * @param b
+	 *            the backend of scopes entered from now on, SCOPED_VALUE falls back to THREAD_LOCAL where it is not
+	 *            supported
+	 */
+	public static void setBackend(Backend b) {
+		backend = b == Backend.SCOPED_VALUE && WatchStore.scopedValues() ? Backend.SCOPED_VALUE : Backend.THREAD_LOCAL;
+	}
+
+	public static void run(Runnable task) {
+		Map<String, String> mdc = MDC.getCopyOfContextMap();
+		try {
+			if (backend == Backend.SCOPED_VALUE)
+				WatchStore.runScoped(task);
+			else
+				WatchStore.runSwapped(task);
+		} finally {
+			restore(mdc);
+		}
+	}
+
+	public static <V> V call(Callable<V> task) throws Exception {
+		Map<String, String> mdc = MDC.getCopyOfContextMap();
+		try {
+			if (backend == Backend.SCOPED_VALUE)
+				return WatchStore.callScoped(task);
+			return WatchStore.callSwapped(task);
+		} finally {
+			restore(mdc);
+		}
+	}
+
+	// MDC.clear() also drops the thread local map of logback
+	private static void restore(Map<String, String> mdc) {
+		if (mdc == null || mdc.isEmpty())
+			MDC.clear();
+		else
+			MDC.setContextMap(mdc);
+	}
+
+	private static Backend initialBackend() {
+		String value = System.getProperty(BACKEND_PROPERTY);
+		if (value != null) {
+			try {
+				Backend b = Backend.valueOf(value.trim().toUpperCase());
+				return b == Backend.SCOPED_VALUE && !WatchStore.scopedValues() ? Backend.THREAD_LOCAL : b;
+			} catch (IllegalArgumentException e) {
+				// fall through to the default
+			}
+		}
+		return WatchStore.scopedValues() ? Backend.SCOPED_VALUE : Backend.THREAD_LOCAL;
+	}
+}
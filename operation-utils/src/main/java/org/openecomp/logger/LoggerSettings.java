@@ -0,0 +1,327 @@
+
+/*-
+ * ============LICENSE_START==========================================
+ * OPENECOMP - DCAE
+ * ===================================================================
+ * Copyright (c) 2017 AT&T Intellectual Property. All rights reserved.
+ * ===================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END============================================
+ */
+	
+package org.openecomp.logger;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.LoggerFactory;
+
+import com.att.eelf.configuration.EELFLogger;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggerContextListener;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.Layout;
+import ch.qos.logback.core.OutputStreamAppender;
+import ch.qos.logback.core.encoder.Encoder;
+import ch.qos.logback.core.encoder.LayoutWrappingEncoder;
+import ch.qos.logback.core.helpers.NOPAppender;
+import ch.qos.logback.core.pattern.PatternLayoutBase;
+import ch.qos.logback.core.spi.AppenderAttachable;
+import ch.qos.logback.core.status.WarnStatus;
+
+/**
+ * Facts about the logging configuration behind the EcompLogger loggers (enabled levels, fields rendered by the
+ * appenders), cached so they are not recomputed per event. The cache is dropped whenever logback is reset or a level
+ * changes. Since appenders are attached after the reset
+ * that starts a reconfiguration, answers computed shortly after a reset are not cached.
+ * 
+ * When SLF4J is not bound to logback nothing can be inspected and every field is assumed to be in use. Levels are then
+ * asked of the logger every time, as they are while logback has turbo filters, whose answers can depend on the MDC of
+ * the calling thread.
+ */
+final class LoggerSettings {
+
+	private static final long SETTLE_MILLIS = 5000;
+
+	// %X{key}, %X{key:-default}, %mdc{key} or a bare %X / %mdc for the whole map, with optional format modifiers
+	private static final Pattern MDC_CONVERSION = Pattern.compile("%[-.0-9]*(?:X|mdc)(?:\\{([^}]*)\\})?");
+
+	private static final ConcurrentMap<String, Boolean> classNameUsage = new ConcurrentHashMap<String, Boolean>();
+
+	private static volatile long settleUntil;
+
+	private static final ConcurrentMap<String, Levels> levels = new ConcurrentHashMap<String, Levels>();
+
+	private static final AtomicInteger generation = new AtomicInteger();
+
+	private static final boolean logback = Logback.register();
+
+	private LoggerSettings() {
+	}
+
+	/**
+	 * @return true if SLF4J is bound to logback
+	 */
+	static boolean isLogback() {
+		return logback;
+	}
+
+	/**
+	 * @return true if a record written through the named logger may render the ClassName MDC field
+	 */
+	static boolean usesClassName(String loggerName) {
+		Boolean used = classNameUsage.get(loggerName);
+		if (used != null)
+			return used;
+		boolean b = !logback || Logback.uses(loggerName, EcompLogger.CLASS_NAME);
+		if (System.currentTimeMillis() >= settleUntil)
+			classNameUsage.put(loggerName, b);
+		return b;
+	}
+
+	/**
+	 * @return the shared enabled level cache of the named logger
+	 */
+	static Levels levels(String loggerName, EELFLogger logger) {
+		Levels l = levels.get(loggerName);
+		if (l == null) {
+			Levels n = new Levels(logger);
+			l = levels.putIfAbsent(loggerName, n);
+			if (l == null)
+				l = n;
+		}
+		return l;
+	}
+
+	static void invalidate() {
+		generation.incrementAndGet();
+		settleUntil = System.currentTimeMillis() + SETTLE_MILLIS;
+		classNameUsage.clear();
+		for (Levels l : levels.values())
+			l.reset();
+	}
+
+	/**
+	 * Report a problem of the logging configuration in the logback status, or through java.util.logging without logback
+	 */
+	static void warn(String message) {
+		if (logback)
+			Logback.warn(message);
+		else
+			java.util.logging.Logger.getLogger(LoggerSettings.class.getName()).warning(message);
+	}
+
+	static boolean patternUses(String pattern, String mdcKey) {
+		if (pattern == null)
+			return false;
+		Matcher m = MDC_CONVERSION.matcher(pattern);
+		while (m.find()) {
+			String key = m.group(1);
+			if (key == null)
+				return true;
+			int d = key.indexOf(":-");
+			if (d >= 0)
+				key = key.substring(0, d);
+			if (key.trim().equals(mdcKey))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * The levels enabled on one EELF logger, as a bit set indexed by level ordinal. Checking a level is a volatile read
+	 * and a mask once the set has been computed. Not cached while it may differ between threads.
+	 */
+	static final class Levels {
+		private static final int UNKNOWN = -1;
+
+		private final EELFLogger logger;
+		private volatile int enabled = UNKNOWN;
+
+		private Levels(EELFLogger logger) {
+			this.logger = logger;
+		}
+
+		boolean isEnabled(EELFLogger.Level level) {
+			if (!logback || Logback.hasTurboFilters())
+				return ask(level);
+			int e = enabled;
+			if (e == UNKNOWN)
+				e = refresh();
+			return (e & (1 << level.ordinal())) != 0;
+		}
+
+		private int refresh() {
+			int g = generation.get();
+			int e = 0;
+			if (logger.isTraceEnabled())
+				e |= 1 << EELFLogger.Level.TRACE.ordinal();
+			if (logger.isDebugEnabled())
+				e |= 1 << EELFLogger.Level.DEBUG.ordinal();
+			if (logger.isInfoEnabled())
+				e |= 1 << EELFLogger.Level.INFO.ordinal();
+			if (logger.isWarnEnabled())
+				e |= 1 << EELFLogger.Level.WARN.ordinal();
+			if (logger.isErrorEnabled())
+				e |= 1 << EELFLogger.Level.ERROR.ordinal();
+			enabled = e;
+			// a level changed while we were looking, don't keep what may be stale
+			if (generation.get() != g)
+				enabled = UNKNOWN;
+			return e;
+		}
+
+		private boolean ask(EELFLogger.Level level) {
+			switch (level) {
+			case TRACE:
+				return logger.isTraceEnabled();
+			case DEBUG:
+				return logger.isDebugEnabled();
+			case INFO:
+				return logger.isInfoEnabled();
+			case WARN:
+				return logger.isWarnEnabled();
+			case ERROR:
+				return logger.isErrorEnabled();
+			default:
+				return false;
+			}
+		}
+
+		private void reset() {
+			enabled = UNKNOWN;
+		}
+	}
+
+	/**
+	 * Everything touching logback classes, kept apart so a different SLF4J binding never loads them.
+	 */
+	private static final class Logback implements LoggerContextListener {
+
+		// the list of the context, emptied rather than replaced by a reset
+		private static List<TurboFilter> turboFilters;
+
+		static boolean register() {
+			try {
+				if (!(LoggerFactory.getILoggerFactory() instanceof LoggerContext))
+					return false;
+				LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+				turboFilters = context.getTurboFilterList();
+				context.addListener(new Logback());
+				return true;
+			} catch (LinkageError e) {
+				return false;
+			}
+		}
+
+		static boolean hasTurboFilters() {
+			return !turboFilters.isEmpty();
+		}
+
+		static void warn(String message) {
+			LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+			context.getStatusManager().add(new WarnStatus(message, LoggerSettings.class));
+		}
+
+		static boolean uses(String loggerName, String mdcKey) {
+			LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+			String name = loggerName;
+			while (true) {
+				Logger logger = context.exists(name);
+				if (logger != null) {
+					Iterator<Appender<ILoggingEvent>> it = logger.iteratorForAppenders();
+					while (it.hasNext()) {
+						if (appenderUses(it.next(), mdcKey))
+							return true;
+					}
+					if (!logger.isAdditive())
+						return false;
+				}
+				if (Logger.ROOT_LOGGER_NAME.equals(name))
+					return false;
+				int i = Math.max(name.lastIndexOf('.'), name.lastIndexOf('$'));
+				name = i < 0 ? Logger.ROOT_LOGGER_NAME : name.substring(0, i);
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		private static boolean appenderUses(Appender<ILoggingEvent> appender, String mdcKey) {
+			if (appender instanceof NOPAppender)
+				return false;
+			if (appender instanceof AppenderAttachable) {
+				Iterator<Appender<ILoggingEvent>> it = ((AppenderAttachable<ILoggingEvent>) appender)
+						.iteratorForAppenders();
+				while (it.hasNext()) {
+					if (appenderUses(it.next(), mdcKey))
+						return true;
+				}
+				return false;
+			}
+			Encoder<ILoggingEvent> encoder = null;
+			if (appender instanceof OutputStreamAppender)
+				encoder = ((OutputStreamAppender<ILoggingEvent>) appender).getEncoder();
+			else if (appender instanceof BackgroundRollingFileAppender)
+				encoder = ((BackgroundRollingFileAppender) appender).getEncoder();
+			else if (appender instanceof MappedFileAppender)
+				encoder = ((MappedFileAppender) appender).getEncoder();
+			else if (appender instanceof GroupCommitFileAppender)
+				encoder = ((GroupCommitFileAppender) appender).getEncoder();
+			else if (appender instanceof LoggingBootstrap.SharedFile)
+				encoder = ((LoggingBootstrap.SharedFile) appender).file.getEncoder();
+			if (encoder instanceof LayoutWrappingEncoder) {
+				Layout<ILoggingEvent> layout = ((LayoutWrappingEncoder<ILoggingEvent>) encoder).getLayout();
+				if (layout instanceof EelfLayout && ((EelfLayout) layout).getSchema() != null)
+					return ((EelfLayout) layout).getSchema().uses(mdcKey);
+				if (layout instanceof PatternLayoutBase)
+					return patternUses(((PatternLayoutBase<ILoggingEvent>) layout).getPattern(), mdcKey);
+			}
+			// an appender we can't see into may render any field
+			return true;
+		}
+
+		@Override
+		public boolean isResetResistant() {
+			return true;
+		}
+
+		@Override
+		public void onStart(LoggerContext context) {
+			invalidate();
+		}
+
+		@Override
+		public void onReset(LoggerContext context) {
+			invalidate();
+		}
+
+		@Override
+		public void onStop(LoggerContext context) {
+			invalidate();
+		}
+
+		@Override
+		public void onLevelChange(Logger logger, Level level) {
+			invalidate();
+		}
+	}
+}
@@ -0,0 +1,270 @@
+
+/*-
+ * ============LICENSE_START==========================================
+ * OPENECOMP - DCAE
+ * ===================================================================
+ * Copyright (c) 2017 AT&T Intellectual Property. All rights reserved.
+ * ===================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END============================================
+ */
+	
+package org.openecomp.logger;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.encoder.Encoder;
+import ch.qos.logback.core.util.FileSize;
+
+import org.openecomp.logger.LoggingConfig.Category;
+import org.openecomp.logger.LoggingConfig.Settings;
+
+/**
+ * Sets up logback from a {@link LoggingConfig} instead of logback.xml: for each category a
+ * {@link BackgroundRollingFileAppender} with the {@link EelfEncoder}, behind an AsyncAppender, attached to the loggers
+ * of the category. The appenders have the names of those of logback.xml (EELFAudit, asyncEELFAudit, ...).
+ * 
+ * {@link #configure(LoggingConfig)} replaces the whole logback configuration, including the scanning of the
+ * configuration file. {@link #reconfigure(LoggingConfig)} changes the set up made by configure in place: categories
+ * whose files and queues are unchanged keep their appenders, and only have their level changed, without a record lost.
+ * A file is only ever open in one appender: a category whose file is unchanged keeps its file appender.
+ */
+public final class LoggingBootstrap {
+
+	// time left to the threads that took the appenders of a logger before they were detached to append to them
+	private static final long DETACH_GRACE_MILLIS = 200;
+
+	private static final String[] APPENDER_NAMES = { "EELF", "EELFError", "EELFAudit", "EELFMetrics", "EELFDebug",
+			"EELFSecurity", "EELFPerformance", "EELFServer", "EELFPolicy" };
+
+	private static LoggingConfig current;
+
+	// indexed by Category ordinal, the appender attached to the loggers of the category
+	private static final Appender<?>[] installed = new Appender<?>[Category.values().length];
+
+	// indexed by Category ordinal, the file appender behind it
+	private static final SharedFile[] files = new SharedFile[Category.values().length];
+
+	private LoggingBootstrap() {
+	}
+
+	/**
+	 * @return the configuration installed last, null if none was
+	 */
+	public static synchronized LoggingConfig getConfig() {
+		return current;
+	}
+
+	/**
+	 * Reset logback, dropping the configuration read from logback.xml or set up in any other way, and install the
+	 * configuration
+	 */
+	public static synchronized void configure(LoggingConfig config) {
+		LoggerContext context = context();
+		context.reset();
+		for (Category c : Category.values())
+			install(context, config, c, null);
+		current = config;
+	}
+
+	/**
+	 * Apply the configuration to the categories it changes, as {@link #configure(LoggingConfig)} does if nothing was
+	 * configured yet. A category whose appenders change gets the new appenders attached before the old ones are
+	 * detached and stopped, which writes their queued records: no record is lost, one logged during the swap may be
+	 * written by both. The old appenders are stopped a moment after they are detached, so this call takes that long.
+	 * 
+	 * When the file of a category is unchanged its file appender is kept, with the new limits and pattern, and only the
+	 * AsyncAppender in front of it is replaced if the queue changes.
+	 */
+	public static synchronized void reconfigure(LoggingConfig config) {
+		if (current == null) {
+			configure(config);
+			return;
+		}
+		LoggerContext context = context();
+		List<Appender<?>> replaced = new ArrayList<Appender<?>>();
+		for (Category c : Category.values()) {
+			Settings was = current.get(c);
+			Settings s = config.get(c);
+			boolean sameFile = config.getFile(c).equals(current.getFile(c));
+			if (s.sameAppenders(was) && sameFile) {
+				for (String name : c.loggers)
+					context.getLogger(name).setLevel(s.level);
+				continue;
+			}
+			Appender<?> old = installed[c.ordinal()];
+			SharedFile file = files[c.ordinal()];
+			if (sameFile && file != null && s.level != Level.OFF) {
+				if (!s.sameFileAppender(was))
+					file.file.update(new FileSize(s.maxFileSize), s.maxHistory, new FileSize(s.totalSizeCap),
+							encoder(context, c, s));
+				if (s.sameQueue(was)) {
+					for (String name : c.loggers)
+						context.getLogger(name).setLevel(s.level);
+					continue;
+				}
+				// the old AsyncAppender is stopped without it
+				file.keepFile();
+				install(context, config, c, file.file);
+			} else {
+				install(context, config, c, null);
+			}
+			if (old != null) {
+				for (String name : c.loggers)
+					detach(context.getLogger(name), old);
+				replaced.add(old);
+			}
+		}
+		current = config;
+		if (!replaced.isEmpty()) {
+			try {
+				Thread.sleep(DETACH_GRACE_MILLIS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			for (Appender<?> old : replaced)
+				old.stop();
+		}
+		// the fields the new appenders render
+		LoggerSettings.invalidate();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static void detach(Logger logger, Appender<?> appender) {
+		logger.detachAppender((Appender<ILoggingEvent>) appender);
+	}
+
+	/**
+	 * @param file
+	 *            the file appender of the category to keep, null for a new one
+	 */
+	private static void install(LoggerContext context, LoggingConfig config, Category c,
+			BackgroundRollingFileAppender file) {
+		Settings s = config.get(c);
+		installed[c.ordinal()] = null;
+		files[c.ordinal()] = null;
+		for (String loggerName : c.loggers) {
+			Logger logger = context.getLogger(loggerName);
+			logger.setLevel(s.level);
+			logger.setAdditive(false);
+		}
+		if (s.level == Level.OFF)
+			return;
+		String name = APPENDER_NAMES[c.ordinal()];
+		if (file == null)
+			file = fileAppender(context, name, config.getFile(c), s, encoder(context, c, s));
+		SharedFile shared = new SharedFile(file);
+		shared.setContext(context);
+		shared.setName(name);
+		shared.start();
+		files[c.ordinal()] = shared;
+		Appender<ILoggingEvent> appender = shared;
+		if (s.queueSize > 0) {
+			AsyncAppender async = new AsyncAppender();
+			async.setContext(context);
+			async.setName("async" + name);
+			async.setQueueSize(s.queueSize);
+			if (s.discardingThreshold >= 0)
+				async.setDiscardingThreshold(s.discardingThreshold);
+			async.setNeverBlock(s.neverBlock);
+			async.addAppender(appender);
+			async.start();
+			appender = async;
+		}
+		for (String loggerName : c.loggers)
+			context.getLogger(loggerName).addAppender(appender);
+		installed[c.ordinal()] = appender;
+	}
+
+	private static Encoder<ILoggingEvent> encoder(LoggerContext context, Category c, Settings s) {
+		if (s.pattern != null) {
+			PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+			encoder.setContext(context);
+			encoder.setPattern(s.pattern);
+			encoder.start();
+			return encoder;
+		}
+		EelfEncoder encoder = new EelfEncoder();
+		encoder.setContext(context);
+		encoder.setSchema(c.schema.name());
+		encoder.start();
+		return encoder;
+	}
+
+	private static BackgroundRollingFileAppender fileAppender(LoggerContext context, String name, String file,
+			Settings s, Encoder<ILoggingEvent> encoder) {
+		BackgroundRollingFileAppender appender = new BackgroundRollingFileAppender();
+		appender.setContext(context);
+		appender.setName(name);
+		appender.setFile(file);
+		appender.setFileNamePattern(rolledName(file));
+		appender.setMaxFileSize(new FileSize(s.maxFileSize));
+		appender.setMaxHistory(s.maxHistory);
+		appender.setTotalSizeCap(new FileSize(s.totalSizeCap));
+		appender.setEncoder(encoder);
+		appender.start();
+		return appender;
+	}
+
+	// as the fileNamePattern of logback.xml, audit.log is rolled to audit.%i.log.zip
+	private static String rolledName(String file) {
+		return FixedWindow.defaultPattern(file) + ".zip";
+	}
+
+	/**
+	 * Passes the records on to the file appender of a category, so that the file appender can outlive the AsyncAppender
+	 * in front of it: an AsyncAppender stops the appenders attached to it when it stops. The file appender is stopped
+	 * with this one unless {@link #keepFile()} was called.
+	 */
+	static final class SharedFile extends UnsynchronizedAppenderBase<ILoggingEvent> {
+		final BackgroundRollingFileAppender file;
+
+		private volatile boolean keepFile;
+
+		SharedFile(BackgroundRollingFileAppender file) {
+			this.file = file;
+		}
+
+		void keepFile() {
+			keepFile = true;
+		}
+
+		@Override
+		protected void append(ILoggingEvent event) {
+			file.doAppend(event);
+		}
+
+		@Override
+		public void stop() {
+			super.stop();
+			if (!keepFile)
+				file.stop();
+		}
+	}
+
+	private static LoggerContext context() {
+		return (LoggerContext) LoggerFactory.getILoggerFactory();
+	}
+}
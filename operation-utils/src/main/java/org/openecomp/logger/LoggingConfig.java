@@ -0,0 +1,320 @@
+
+/*-
+ * ============LICENSE_START==========================================
+ * OPENECOMP - DCAE
+ * ===================================================================
+ * Copyright (c) 2017 AT&T Intellectual Property. All rights reserved.
+ * ===================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END============================================
+ */
+	
+package org.openecomp.logger;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.core.util.FileSize;
+
+/**
+ * The logging set up installed by {@link LoggingBootstrap}, as an immutable value: for each {@link Category} a
+ * rolling file, its level, and the queue of the AsyncAppender in front of the file. The defaults are those of the
+ * logback.xml shipped with this library: the EELF line formats, 2500KB files of which 20 are kept zipped, and queues
+ * of 256 records that block when full and drop records below WARN when 80% full, except the security queue that never
+ * drops any.
+ * 
+ * <pre>
+ * LoggingConfig config = LoggingConfig.builder().logDirectory("/opt/app/logs")
+ *         .queueSize(Category.AUDIT, 8192).neverBlock(Category.DEBUG, true).build();
+ * </pre>
+ */
+public final class LoggingConfig {
+
+	/**
+	 * The records written by the EcompLogger (and the EELF loggers of the same category, com.att.eelf.* and
+	 * com.att.ecomp.*), the other EELF logs of logback.xml, and the general log for every other logger
+	 */
+	public enum Category {
+		GENERAL("application", EelfLayout.Schema.GENERAL, Level.INFO, ch.qos.logback.classic.Logger.ROOT_LOGGER_NAME,
+				"com.att.eelf"),
+
+		ERROR("error", EelfLayout.Schema.ERROR, Level.INFO, "org.openecomp.error", "com.att.eelf.error",
+				"com.att.ecomp.error"),
+
+		AUDIT("audit", EelfLayout.Schema.AUDIT, Level.INFO, "org.openecomp.audit", "com.att.eelf.audit",
+				"com.att.ecomp.audit"),
+
+		METRICS("metrics", EelfLayout.Schema.METRICS, Level.INFO, "org.openecomp.metrics", "com.att.eelf.metrics",
+				"com.att.ecomp.metrics"),
+
+		DEBUG("debug", EelfLayout.Schema.DEBUG, Level.DEBUG, "org.openecomp.debug", "com.att.eelf.debug",
+				"com.att.ecomp.debug"),
+
+		/**
+		 * Never discards a record, as in logback.xml
+		 */
+		SECURITY("security", EelfLayout.Schema.GENERAL, Level.INFO, 0, "com.att.eelf.security"),
+
+		PERFORMANCE("performance", EelfLayout.Schema.GENERAL, Level.INFO, "com.att.eelf.perf"),
+
+		SERVER("server", EelfLayout.Schema.GENERAL, Level.INFO, "com.att.eelf.server"),
+
+		POLICY("policy", EelfLayout.Schema.GENERAL, Level.INFO, "com.att.eelf.policy");
+
+		final String logName;
+		final EelfLayout.Schema schema;
+		final Level level;
+		final int discardingThreshold;
+		final String[] loggers;
+
+		Category(String logName, EelfLayout.Schema schema, Level level, String... loggers) {
+			this(logName, schema, level, -1, loggers);
+		}
+
+		Category(String logName, EelfLayout.Schema schema, Level level, int discardingThreshold, String... loggers) {
+			this.logName = logName;
+			this.schema = schema;
+			this.level = level;
+			this.discardingThreshold = discardingThreshold;
+			this.loggers = loggers;
+		}
+	}
+
+	private static final Category[] CATEGORIES = Category.values();
+
+	/**
+	 * What can be set for one category
+	 */
+	static final class Settings implements Cloneable {
+		String logName;
+		Level level;
+		String pattern;
+		long maxFileSize = 2500 * FileSize.KB_COEFFICIENT;
+		int maxHistory = 20;
+		long totalSizeCap;
+		int queueSize = 256;
+		int discardingThreshold;
+		boolean neverBlock;
+
+		Settings(Category c) {
+			logName = c.logName;
+			level = c.level;
+			discardingThreshold = c.discardingThreshold;
+		}
+
+		/**
+		 * @return true if the same appenders can be kept, only the level differs
+		 */
+		boolean sameAppenders(Settings o) {
+			return sameFileAppender(o) && sameQueue(o);
+		}
+
+		/**
+		 * @return true if the file appender can be kept, only the level or the queue differs
+		 */
+		boolean sameFileAppender(Settings o) {
+			return logName.equals(o.logName) && (pattern == null ? o.pattern == null : pattern.equals(o.pattern))
+					&& maxFileSize == o.maxFileSize && maxHistory == o.maxHistory && totalSizeCap == o.totalSizeCap;
+		}
+
+		/**
+		 * @return true if the AsyncAppender can be kept
+		 */
+		boolean sameQueue(Settings o) {
+			return queueSize == o.queueSize && discardingThreshold == o.discardingThreshold
+					&& neverBlock == o.neverBlock;
+		}
+
+		@Override
+		protected Settings clone() {
+			try {
+				return (Settings) super.clone();
+			} catch (CloneNotSupportedException e) {
+				throw new AssertionError(e);
+			}
+		}
+	}
+
+	private final String logDirectory;
+
+	private final String debugLogDirectory;
+
+	// indexed by Category ordinal
+	private final Settings[] settings;
+
+	private LoggingConfig(String logDirectory, String debugLogDirectory, Settings[] settings) {
+		this.logDirectory = logDirectory;
+		this.debugLogDirectory = debugLogDirectory;
+		this.settings = settings;
+	}
+
+	public static Builder builder() {
+		Settings[] s = new Settings[CATEGORIES.length];
+		for (Category c : CATEGORIES)
+			s[c.ordinal()] = new Settings(c);
+		return new Builder("logs/EELF", "debug-logs/EELF", s);
+	}
+
+	public Builder toBuilder() {
+		return new Builder(logDirectory, debugLogDirectory, copy(settings));
+	}
+
+	public String getLogDirectory() {
+		return logDirectory;
+	}
+
+	public String getDebugLogDirectory() {
+		return debugLogDirectory;
+	}
+
+	Settings get(Category category) {
+		return settings[category.ordinal()];
+	}
+
+	/**
+	 * @return the file the category is written to
+	 */
+	public String getFile(Category category) {
+		return (category == Category.DEBUG ? debugLogDirectory : logDirectory) + "/" + get(category).logName + ".log";
+	}
+
+	private static Settings[] copy(Settings[] settings) {
+		Settings[] s = new Settings[settings.length];
+		for (int i = 0; i < s.length; i++)
+			s[i] = settings[i].clone();
+		return s;
+	}
+
+	public static final class Builder {
+		private String logDirectory;
+		private String debugLogDirectory;
+		private final Settings[] settings;
+
+		private Builder(String logDirectory, String debugLogDirectory, Settings[] settings) {
+			this.logDirectory = logDirectory;
+			this.debugLogDirectory = debugLogDirectory;
+			this.settings = settings;
+		}
+
+		/**
+		 * @param logDirectory
+		 *            directory of every log but the debug log, logs/EELF by default
+		 */
+		public Builder logDirectory(String logDirectory) {
+			this.logDirectory = logDirectory;
+			return this;
+		}
+
+		/**
+		 * @param debugLogDirectory
+		 *            directory of the debug log, debug-logs/EELF by default
+		 */
+		public Builder debugLogDirectory(String debugLogDirectory) {
+			this.debugLogDirectory = debugLogDirectory;
+			return this;
+		}
+
+		/**
+		 * @param logName
+		 *            file name without the .log extension, e.g. audit
+		 */
+		public Builder logName(Category category, String logName) {
+			settings[category.ordinal()].logName = logName;
+			return this;
+		}
+
+		/**
+		 * @param level
+		 *            the level of the loggers of the category, Level.OFF writes no file at all
+		 */
+		public Builder level(Category category, Level level) {
+			settings[category.ordinal()].level = level;
+			return this;
+		}
+
+		/**
+		 * @param pattern
+		 *            a logback pattern replacing the EELF line format, null for the EELF format
+		 */
+		public Builder pattern(Category category, String pattern) {
+			settings[category.ordinal()].pattern = pattern;
+			return this;
+		}
+
+		/**
+		 * @param maxFileSize
+		 *            size at which the file is rolled, 0 to never roll it
+		 */
+		public Builder maxFileSize(Category category, FileSize maxFileSize) {
+			settings[category.ordinal()].maxFileSize = maxFileSize.getSize();
+			return this;
+		}
+
+		/**
+		 * @param maxHistory
+		 *            number of rolled files kept, 0 to keep them all
+		 */
+		public Builder maxHistory(Category category, int maxHistory) {
+			settings[category.ordinal()].maxHistory = maxHistory;
+			return this;
+		}
+
+		/**
+		 * @param totalSizeCap
+		 *            total size of the rolled files kept, null for no limit
+		 */
+		public Builder totalSizeCap(Category category, FileSize totalSizeCap) {
+			settings[category.ordinal()].totalSizeCap = totalSizeCap == null ? 0 : totalSizeCap.getSize();
+			return this;
+		}
+
+		/**
+		 * @param queueSize
+		 *            records queued for the file, 0 to have the logging threads write the file themselves
+		 */
+		public Builder queueSize(Category category, int queueSize) {
+			settings[category.ordinal()].queueSize = queueSize;
+			return this;
+		}
+
+		/**
+		 * @param discardingThreshold
+		 *            remaining queue capacity below which records under WARN are dropped, 0 to never drop them, -1
+		 *            for a fifth of the queue
+		 */
+		public Builder discardingThreshold(Category category, int discardingThreshold) {
+			settings[category.ordinal()].discardingThreshold = discardingThreshold;
+			return this;
+		}
+
+		/**
+		 * @param neverBlock
+		 *            true to drop records when the queue is full rather than have logging threads wait
+		 */
+		public Builder neverBlock(Category category, boolean neverBlock) {
+			settings[category.ordinal()].neverBlock = neverBlock;
+			return this;
+		}
+
+		public LoggingConfig build() {
+			for (Category c : CATEGORIES) {
+				Settings s = settings[c.ordinal()];
+				if (s.logName == null || s.level == null)
+					throw new IllegalArgumentException("No log name or level for " + c);
+				if (s.maxHistory < 0 || s.queueSize < 0)
+					throw new IllegalArgumentException("Negative maxHistory or queueSize for " + c);
+			}
+			if (logDirectory == null || debugLogDirectory == null)
+				throw new IllegalArgumentException("No log directory");
+			return new LoggingConfig(logDirectory, debugLogDirectory, copy(settings));
+		}
+	}
+}
@@ -0,0 +1,370 @@
+
+/*-
+ * ============LICENSE_START==========================================
+ * OPENECOMP - DCAE
+ * ===================================================================
+ * Copyright (c) 2017 AT&T Intellectual Property. All rights reserved.
+ * ===================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END============================================
+ */
+	
+package org.openecomp.logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Layout;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.encoder.Encoder;
+import ch.qos.logback.core.encoder.LayoutWrappingEncoder;
+import ch.qos.logback.core.status.ErrorStatus;
+import ch.qos.logback.core.util.FileSize;
+
+/**
+ * Appender writing records into a memory mapped segment of the log file. A replacement for the RollingFileAppender of
+ * the audit and metrics logs that takes the same encoder:
+ * 
+ * <pre>
+ * &lt;appender name="EELFAudit" class="org.openecomp.logger.MappedFileAppender"&gt;
+ *     &lt;file&gt;${logDirectory}/${auditLogName}.log&lt;/file&gt;
+ *     &lt;fileNamePattern&gt;${logDirectory}/${auditLogName}.%i.log&lt;/fileNamePattern&gt;
+ *     &lt;maxIndex&gt;20&lt;/maxIndex&gt;
+ *     &lt;maxFileSize&gt;2500KB&lt;/maxFileSize&gt;
+ *     &lt;encoder&gt;
+ *         &lt;pattern&gt;${auditLoggerPattern}&lt;/pattern&gt;
+ *     &lt;/encoder&gt;
+ * &lt;/appender&gt;
+ * </pre>
+ * 
+ * The file is preallocated to maxFileSize and mapped. The text of a pattern encoder, or the buffer an
+ * {@link EelfEncoder} lays the record out in, is encoded straight into the mapping, no byte array is built and no
+ * system call is made per record. When a record does not fit, the segment is truncated to its content, renamed in a
+ * fixed window as FixedWindowRollingPolicy does, and a new segment is mapped. A file that can't be renamed keeps its
+ * records and grows by another segment, the roll is tried again when it is full.
+ * 
+ * Records are in the page cache as soon as they are appended, and survive a crash of the process, but the file only
+ * gets its real length when the segment is closed: until then, and after a crash of the host, it ends with zeros.
+ * Appending to such a file after a restart starts after its last non zero byte. Rolled segments are not compressed.
+ * For that the charset of the encoder must write a line break as the single byte 0x0A, as UTF-8 and the ISO-8859
+ * charsets do; UTF-16 and UTF-32 are refused, their records can end with a zero byte. Encoders that are not pattern
+ * encoders must not end their records with one either.
+ */
+public class MappedFileAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
+
+	private static final long DEFAULT_MAX_FILE_SIZE = 2500 * FileSize.KB_COEFFICIENT;
+
+	private final ReentrantLock lock = new ReentrantLock(true);
+
+	private final FixedWindow window = new FixedWindow(this);
+
+	private String file;
+
+	private long maxFileSize = DEFAULT_MAX_FILE_SIZE;
+
+	private Encoder<ILoggingEvent> encoder;
+
+	// the layout of a pattern encoder, whose text is encoded into the segment directly
+	private Layout<ILoggingEvent> layout;
+
+	private CharsetEncoder charsetEncoder;
+
+	private FileChannel channel;
+
+	// file offset of the segment, beyond 0 when the file could not be rolled and is appended to past maxFileSize
+	private long base;
+
+	private MappedByteBuffer segment;
+
+	public void setFile(String file) {
+		this.file = file;
+	}
+
+	public String getFile() {
+		return file;
+	}
+
+	/**
+	 * @param fileNamePattern
+	 *            name of the rolled segments, %i is replaced with the index. Defaults to the file name with the index
+	 *            before its extension.
+	 */
+	public void setFileNamePattern(String fileNamePattern) {
+		window.setFileNamePattern(fileNamePattern);
+	}
+
+	public void setMinIndex(int minIndex) {
+		window.setMinIndex(minIndex);
+	}
+
+	public void setMaxIndex(int maxIndex) {
+		window.setMaxIndex(maxIndex);
+	}
+
+	public void setMaxFileSize(FileSize maxFileSize) {
+		this.maxFileSize = maxFileSize.getSize();
+	}
+
+	public void setEncoder(Encoder<ILoggingEvent> encoder) {
+		this.encoder = encoder;
+	}
+
+	public Encoder<ILoggingEvent> getEncoder() {
+		return encoder;
+	}
+
+	@Override
+	public void start() {
+		int errors = 0;
+		if (file == null) {
+			addError("No file set for the appender named [" + name + "].");
+			errors++;
+		}
+		if (encoder == null) {
+			addError("No encoder set for the appender named [" + name + "].");
+			errors++;
+		}
+		if (maxFileSize <= 0 || maxFileSize > Integer.MAX_VALUE) {
+			addError("maxFileSize of the appender named [" + name + "] must be between 1 byte and 2GB.");
+			errors++;
+		}
+		if (file != null && !window.start(file, name))
+			errors++;
+		if (errors > 0)
+			return;
+		if (encoder instanceof LayoutWrappingEncoder) {
+			LayoutWrappingEncoder<ILoggingEvent> wrapping = (LayoutWrappingEncoder<ILoggingEvent>) encoder;
+			layout = wrapping.getLayout();
+			Charset charset = wrapping.getCharset() != null ? wrapping.getCharset() : Charset.defaultCharset();
+			if (!Arrays.equals("\n".getBytes(charset), new byte[] { '\n' })) {
+				addError("The charset " + charset + " of the appender named [" + name
+						+ "] does not write a line break as one byte, the end of its records can't be found.");
+				return;
+			}
+			charsetEncoder = charset.newEncoder().onMalformedInput(CodingErrorAction.REPLACE)
+					.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		}
+		lock.lock();
+		try {
+			File f = new File(file);
+			if (f.getParentFile() != null)
+				f.getParentFile().mkdirs();
+			openSegment(false);
+		} catch (IOException e) {
+			addStatus(new ErrorStatus("Failed to map [" + file + "].", this, e));
+			return;
+		} finally {
+			lock.unlock();
+		}
+		super.start();
+	}
+
+	@Override
+	public void stop() {
+		lock.lock();
+		try {
+			closeSegment();
+		} catch (IOException e) {
+			addStatus(new ErrorStatus("Failed to close [" + file + "].", this, e));
+		} finally {
+			lock.unlock();
+		}
+		super.stop();
+	}
+
+	@Override
+	protected void append(ILoggingEvent event) {
+		if (!isStarted())
+			return;
+		lock.lock();
+		try {
+			// stopped meanwhile
+			if (segment == null)
+				return;
+			if (layout instanceof EelfLayout) {
+				StringBuilder b = EelfLayout.buffer();
+				((EelfLayout) layout).layout(event, b);
+				writeText(b, true);
+			} else if (layout != null)
+				writeText(layout.doLayout(event), true);
+			else
+				writeBytes(encoder.encode(event));
+		} catch (IOException e) {
+			// same as OutputStreamAppender, stop rather than report every record
+			started = false;
+			addStatus(new ErrorStatus("IO failure in appender", this, e));
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void writeText(CharSequence text, boolean retry) throws IOException {
+		int mark = segment.position();
+		charsetEncoder.reset();
+		CoderResult result = charsetEncoder.encode(CharBuffer.wrap(text), segment, true);
+		if (!result.isOverflow())
+			result = charsetEncoder.flush(segment);
+		if (!result.isOverflow())
+			return;
+		segment.position(mark);
+		if (mark > 0 && retry) {
+			// a new file, or a new segment past the end of the file that could not be rolled
+			roll();
+			writeText(text, false);
+		} else {
+			writeOversized(text.toString().getBytes(charsetEncoder.charset()));
+		}
+	}
+
+	private void writeBytes(byte[] bytes) throws IOException {
+		if (bytes.length > segment.remaining() && segment.position() > 0)
+			roll();
+		if (bytes.length > segment.remaining())
+			writeOversized(bytes);
+		else
+			segment.put(bytes);
+	}
+
+	/*
+	 * A record larger than a whole segment, only written to an empty segment. It is appended to the file, which is
+	 * then rolled.
+	 */
+	private void writeOversized(byte[] bytes) throws IOException {
+		closeSegment();
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		try {
+			raf.seek(raf.length());
+			raf.write(bytes);
+		} finally {
+			raf.close();
+		}
+		openSegment(!window.roll());
+	}
+
+	/**
+	 * Move the file out of the way, or when it can't be renamed keep appending to it past maxFileSize, and try again
+	 * once that segment is full too. The records of the file are never dropped.
+	 */
+	private void roll() throws IOException {
+		closeSegment();
+		openSegment(!window.roll());
+	}
+
+	/**
+	 * @param extend
+	 *            true to map the segment after the records of the file, however large it is
+	 */
+	private void openSegment(boolean extend) throws IOException {
+		@SuppressWarnings("resource")
+		FileChannel c = new RandomAccessFile(file, "rw").getChannel();
+		long end = contentEnd(c);
+		// not one of our segments
+		if (end > maxFileSize && !extend) {
+			c.close();
+			extend = !window.roll();
+			c = new RandomAccessFile(file, "rw").getChannel();
+			end = contentEnd(c);
+		}
+		long b = extend ? end : 0;
+		// extends the file to the full segment
+		MappedByteBuffer s = c.map(FileChannel.MapMode.READ_WRITE, b, maxFileSize);
+		s.position((int) (end - b));
+		base = b;
+		channel = c;
+		segment = s;
+	}
+
+	// the end of the records, before the zeros left by a segment that was not closed
+	private long contentEnd(FileChannel c) throws IOException {
+		long length = c.size();
+		if (length == 0)
+			return 0;
+		long from = Math.max(0, length - maxFileSize);
+		MappedByteBuffer m = c.map(FileChannel.MapMode.READ_ONLY, from, length - from);
+		int end = (int) (length - from);
+		while (end > 0 && m.get(end - 1) == 0)
+			end--;
+		unmap(m);
+		return from + end;
+	}
+
+	private void closeSegment() throws IOException {
+		if (channel == null)
+			return;
+		long end = base + segment.position();
+		segment.force();
+		unmap(segment);
+		segment = null;
+		try {
+			channel.truncate(end);
+		} finally {
+			channel.close();
+			channel = null;
+		}
+	}
+
+	/*
+	 * A mapping stays in place until its buffer is collected, release it right away so that the segment can be
+	 * truncated and renamed on any platform.
+	 */
+
+	private static final Object unsafe;
+	private static final Method invokeCleaner;
+
+	static {
+		Object u = null;
+		Method m = null;
+		try {
+			Class<?> c = Class.forName("sun.misc.Unsafe");
+			m = c.getMethod("invokeCleaner", ByteBuffer.class);
+			Field f = c.getDeclaredField("theUnsafe");
+			f.setAccessible(true);
+			u = f.get(null);
+		} catch (Exception e) {
+			// Java 8 and earlier, see unmap
+			m = null;
+		}
+		unsafe = u;
+		invokeCleaner = m;
+	}
+
+	private static void unmap(MappedByteBuffer buffer) {
+		try {
+			if (invokeCleaner != null) {
+				invokeCleaner.invoke(unsafe, buffer);
+			} else {
+				Method cleaner = buffer.getClass().getMethod("cleaner");
+				cleaner.setAccessible(true);
+				Object c = cleaner.invoke(buffer);
+				if (c != null)
+					c.getClass().getMethod("clean").invoke(c);
+			}
+		} catch (Exception e) {
+			// left to the garbage collector
+		}
+	}
+}
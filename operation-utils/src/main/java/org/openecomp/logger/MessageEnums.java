@@ -0,0 +1,53 @@
+
+/*-
+ * ============LICENSE_START==========================================
+ * OPENECOMP - DCAE
+ * ===================================================================
+ * Copyright (c) 2017 AT&T Intellectual Property. All rights reserved.
+ * ===================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END============================================
+ */
+	
+package org.openecomp.logger;
+
+/**
+ * Lookup of message enums named in system properties.
+ */
+final class MessageEnums {
+
+	private MessageEnums() {
+	}
+
+	/**
+	 * @param name
+	 *            the enum class and the constant, e.g.
+	 *            org.openecomp.logger.GenericMessagesMessageEnum.ECOMP_LOGGER_TOP_ON_EMPTY_STACK
+	 * @return the message, null if there is no such enum constant on the class path
+	 */
+	static EcompMessageEnum resolve(String name) {
+		int dot = name.lastIndexOf('.');
+		if (dot < 0)
+			return null;
+		try {
+			Class<?> c = Class.forName(name.substring(0, dot));
+			for (Object constant : c.getEnumConstants()) {
+				if (constant instanceof EcompMessageEnum && ((Enum<?>) constant).name().equals(name.substring(dot + 1)))
+					return (EcompMessageEnum) constant;
+			}
+		} catch (Exception e) {
+			// not an enum on the class path
+		}
+		return null;
+	}
+}
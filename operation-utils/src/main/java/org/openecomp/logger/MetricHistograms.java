@@ -0,0 +1,284 @@
+
+/*-
+ * ============LICENSE_START==========================================
+ * OPENECOMP - DCAE
+ * ===================================================================
+ * Copyright (c) 2017 AT&T Intellectual Property. All rights reserved.
+ * ===================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END============================================
+ */
+	
+package org.openecomp.logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Latency histograms of the metric events, one per (ServiceName, TargetEntity, TargetServiceName, StatusCode), fed
+ * with the Stopwatch duration of every recordMetricEventEnd. Every interval the histograms are summarized into one
+ * line per key on the org.openecomp.summary logger:
+ * 
+ * <pre>
+ * ServiceName|TargetEntity|TargetServiceName|StatusCode|IntervalStart|IntervalEnd|Count|P50|P90|P99|P999|Max
+ * </pre>
+ * 
+ * with the latencies in microseconds. The last summaries are also available from {@link #getLastInterval()}.
+ * 
+ * With the histograms on, the per call lines of the metrics log can be thinned out with
+ * {@link #setRawLineSampling(int)}.
+ * 
+ * System properties: org.openecomp.logger.histograms (true to enable), org.openecomp.logger.histograms.interval
+ * (seconds, 60 by default) and org.openecomp.logger.histograms.rawLines (write one metrics line in N, 1 by default,
+ * 0 for none).
+ */
+public final class MetricHistograms {
+
+	public static final String ENABLED_PROPERTY = "org.openecomp.logger.histograms";
+
+	public static final String INTERVAL_PROPERTY = "org.openecomp.logger.histograms.interval";
+
+	public static final String RAW_LINES_PROPERTY = "org.openecomp.logger.histograms.rawLines";
+
+	public static final String SUMMARY_LOGGER = "org.openecomp.summary";
+
+	/**
+	 * Keys beyond this many are counted under a single key with "other" in every field
+	 */
+	static final int MAX_KEYS = 2000;
+
+	private static final Key OVERFLOW = new Key("other", "other", "other", "other");
+
+	private static final ConcurrentMap<Key, LatencyHistogram> histograms = new ConcurrentHashMap<Key, LatencyHistogram>();
+
+	private static final Logger summaryLogger = LoggerFactory.getLogger(SUMMARY_LOGGER);
+
+	private static volatile boolean enabled;
+
+	private static volatile int rawLines = Integer.getInteger(RAW_LINES_PROPERTY, 1);
+
+	private static volatile List<Summary> lastInterval = Collections.emptyList();
+
+	private static long intervalStart = System.currentTimeMillis();
+
+	private static ScheduledExecutorService publisher;
+
+	static {
+		if (Boolean.getBoolean(ENABLED_PROPERTY))
+			setEnabled(true);
+	}
+
+	private MetricHistograms() {
+	}
+
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Turn the histograms on or off. While on, a daemon thread publishes the summaries every interval.
+	 */
+	public static synchronized void setEnabled(boolean on) {
+		if (on == enabled)
+			return;
+		enabled = on;
+		if (on) {
+			long interval = Long.getLong(INTERVAL_PROPERTY, 60);
+			publisher = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread t = new Thread(r, "ecomp-logger-histograms");
+					t.setDaemon(true);
+					return t;
+				}
+			});
+			publisher.scheduleAtFixedRate(new Runnable() {
+				@Override
+				public void run() {
+					publish();
+				}
+			}, interval, interval, TimeUnit.SECONDS);
+		} else {
+			publisher.shutdown();
+			publisher = null;
+		}
+	}
+
+	/**
+	 * @param oneIn
+	 *            write one metrics line out of this many, 0 to write none. Histograms see every event.
+	 */
+	public static void setRawLineSampling(int oneIn) {
+		rawLines = Math.max(oneIn, 0);
+	}
+
+	public static int getRawLineSampling() {
+		return rawLines;
+	}
+
+	/**
+	 * @return the summaries published last, one per key that had events in the interval
+	 */
+	public static List<Summary> getLastInterval() {
+		return lastInterval;
+	}
+
+	/**
+	 * End the current interval now: summarize and reset the histograms, and log the summaries
+	 * 
+	 * @return the summaries, also returned by {@link #getLastInterval()} from now on
+	 */
+	public static synchronized List<Summary> publish() {
+		long start = intervalStart;
+		long end = System.currentTimeMillis();
+		intervalStart = end;
+		List<Summary> summaries = new ArrayList<Summary>();
+		for (Map.Entry<Key, LatencyHistogram> e : histograms.entrySet()) {
+			LatencyHistogram.Snapshot s = e.getValue().intervalSnapshot();
+			if (s.getCount() > 0)
+				summaries.add(new Summary(e.getKey(), start, end, s));
+		}
+		summaries = Collections.unmodifiableList(summaries);
+		lastInterval = summaries;
+		if (summaryLogger.isInfoEnabled()) {
+			for (Summary s : summaries)
+				summaryLogger.info(s.toString());
+		}
+		return summaries;
+	}
+
+	/**
+	 * @return true if the per call line of a metric event is to be written, always while the histograms are disabled
+	 */
+	static boolean sampleRawLine() {
+		if (!enabled)
+			return true;
+		int n = rawLines;
+		return n == 1 || n > 1 && ThreadLocalRandom.current().nextInt(n) == 0;
+	}
+
+	static void record(String serviceName, String targetEntity, String targetServiceName, String statusCode,
+			long nanos) {
+		Key key = new Key(serviceName, targetEntity, targetServiceName, statusCode);
+		LatencyHistogram h = histograms.get(key);
+		if (h == null) {
+			if (histograms.size() >= MAX_KEYS)
+				key = OVERFLOW;
+			h = histograms.get(key);
+			if (h == null) {
+				LatencyHistogram created = new LatencyHistogram();
+				h = histograms.putIfAbsent(key, created);
+				if (h == null)
+					h = created;
+			}
+		}
+		h.record(nanos / 1000L);
+	}
+
+	private static final class Key {
+		final String serviceName;
+		final String targetEntity;
+		final String targetServiceName;
+		final String statusCode;
+		private final int hash;
+
+		Key(String serviceName, String targetEntity, String targetServiceName, String statusCode) {
+			this.serviceName = serviceName == null ? "" : serviceName;
+			this.targetEntity = targetEntity == null ? "" : targetEntity;
+			this.targetServiceName = targetServiceName == null ? "" : targetServiceName;
+			this.statusCode = statusCode == null ? "" : statusCode;
+			hash = ((this.serviceName.hashCode() * 31 + this.targetEntity.hashCode()) * 31
+					+ this.targetServiceName.hashCode()) * 31 + this.statusCode.hashCode();
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Key))
+				return false;
+			Key k = (Key) o;
+			return hash == k.hash && serviceName.equals(k.serviceName) && targetEntity.equals(k.targetEntity)
+					&& targetServiceName.equals(k.targetServiceName) && statusCode.equals(k.statusCode);
+		}
+	}
+
+	/**
+	 * The latencies of one key over one interval, in microseconds
+	 */
+	public static final class Summary {
+		private final Key key;
+		private final long intervalStart;
+		private final long intervalEnd;
+		private final LatencyHistogram.Snapshot snapshot;
+
+		Summary(Key key, long intervalStart, long intervalEnd, LatencyHistogram.Snapshot snapshot) {
+			this.key = key;
+			this.intervalStart = intervalStart;
+			this.intervalEnd = intervalEnd;
+			this.snapshot = snapshot;
+		}
+
+		public String getServiceName() {
+			return key.serviceName;
+		}
+
+		public String getTargetEntity() {
+			return key.targetEntity;
+		}
+
+		public String getTargetServiceName() {
+			return key.targetServiceName;
+		}
+
+		public String getStatusCode() {
+			return key.statusCode;
+		}
+
+		public long getIntervalStart() {
+			return intervalStart;
+		}
+
+		public long getIntervalEnd() {
+			return intervalEnd;
+		}
+
+		public LatencyHistogram.Snapshot getSnapshot() {
+			return snapshot;
+		}
+
+		@Override
+		public String toString() {
+			return key.serviceName + "|" + key.targetEntity + "|" + key.targetServiceName + "|" + key.statusCode + "|"
+					+ IsoTimestamp.format(intervalStart) + "|" + IsoTimestamp.format(intervalEnd) + "|"
+					+ snapshot.getCount() + "|" + snapshot.getValueAtPercentile(50) + "|"
+					+ snapshot.getValueAtPercentile(90) + "|" + snapshot.getValueAtPercentile(99) + "|"
+					+ snapshot.getValueAtPercentile(99.9) + "|" + snapshot.getMax();
+		}
+	}
+}
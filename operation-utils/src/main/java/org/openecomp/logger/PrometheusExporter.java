@@ -0,0 +1,427 @@
+
+/*-
+ * ============LICENSE_START==========================================
+ * OPENECOMP - DCAE
+ * ===================================================================
+ * Copyright (c) 2017 AT&T Intellectual Property. All rights reserved.
+ * ===================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END============================================
+ */
+	
+package org.openecomp.logger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.slf4j.LoggerFactory;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Serves the request and call counts and latencies of the EcompLogger in the Prometheus text format, on the HTTP
+ * server of the JDK. Every recordAuditEventEnd and recordMetricEventEnd is counted, whatever the level of the audit
+ * and metrics loggers:
+ * 
+ * <pre>
+ * ecomp_audit_requests_total{service_name,status_code}
+ * ecomp_audit_request_duration_seconds{service_name,status_code} (histogram)
+ * ecomp_metric_calls_total{service_name,target_entity,target_service_name,status_code}
+ * ecomp_metric_call_duration_seconds{service_name,target_entity,target_service_name,status_code} (histogram)
+ * </pre>
+ * 
+ * Label values are cut to 64 characters, and label combinations beyond 1000 per metric are counted under "other" in
+ * every label.
+ * 
+ * System properties: org.openecomp.logger.prometheus.port to serve /metrics from class initialization, 0 for any
+ * free port, and org.openecomp.logger.prometheus.address (127.0.0.1 by default).
+ */
+public final class PrometheusExporter {
+
+	public static final String PORT_PROPERTY = "org.openecomp.logger.prometheus.port";
+
+	public static final String ADDRESS_PROPERTY = "org.openecomp.logger.prometheus.address";
+
+	public static final String PATH = "/metrics";
+
+	static final int MAX_SERIES = 1000;
+
+	static final int MAX_LABEL_LENGTH = 64;
+
+	private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	// upper bounds of the histogram buckets
+	private static final long[] BOUNDS_MICROS = { 500, 1000, 2500, 5000, 10000, 25000, 50000, 100000, 250000, 500000,
+			1000000, 2500000, 5000000, 10000000, 30000000, 60000000 };
+
+	private static final String[] BOUNDS = { "0.0005", "0.001", "0.0025", "0.005", "0.01", "0.025", "0.05", "0.1",
+			"0.25", "0.5", "1", "2.5", "5", "10", "30", "60", "+Inf" };
+
+	private static final String[] AUDIT_LABELS = { "service_name", "status_code" };
+
+	private static final String[] METRIC_LABELS = { "service_name", "target_entity", "target_service_name",
+			"status_code" };
+
+	private static final Family audit = new Family("ecomp_audit_requests_total",
+			"Requests ended with recordAuditEventEnd.", "ecomp_audit_request_duration_seconds",
+			"Duration of the requests ended with recordAuditEventEnd.", AUDIT_LABELS);
+
+	private static final Family metric = new Family("ecomp_metric_calls_total",
+			"Calls ended with recordMetricEventEnd.", "ecomp_metric_call_duration_seconds",
+			"Duration of the calls ended with recordMetricEventEnd.", METRIC_LABELS);
+
+	private static volatile boolean running;
+
+	private static HttpServer server;
+
+	private static ExecutorService executor;
+
+	static {
+		String port = System.getProperty(PORT_PROPERTY);
+		if (port != null) {
+			try {
+				start(System.getProperty(ADDRESS_PROPERTY, "127.0.0.1"), Integer.parseInt(port.trim()));
+			} catch (IOException | RuntimeException e) {
+				LoggerFactory.getLogger(PrometheusExporter.class).warn("Failed to serve metrics on port " + port, e);
+			}
+		}
+	}
+
+	private PrometheusExporter() {
+	}
+
+	public static boolean isRunning() {
+		return running;
+	}
+
+	/**
+	 * Start counting and serve the counts at {@link #PATH}, the counts of an earlier run are kept
+	 * 
+	 * @param port
+	 *            0 for any free port
+	 * @return the port the server listens on
+	 */
+	public static synchronized int start(String address, int port) throws IOException {
+		if (server != null)
+			stop();
+		executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "ecomp-logger-prometheus");
+				t.setDaemon(true);
+				return t;
+			}
+		});
+		final HttpServer s = HttpServer.create(new InetSocketAddress(address, port), 0);
+		s.createContext(PATH, new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				serve(exchange);
+			}
+		});
+		s.setExecutor(executor);
+		// the dispatcher thread of the server is a daemon when started from one
+		try {
+			executor.submit(new Callable<Void>() {
+				@Override
+				public Void call() {
+					s.start();
+					return null;
+				}
+			}).get();
+		} catch (InterruptedException | ExecutionException e) {
+			executor.shutdown();
+			executor = null;
+			throw new IOException("Failed to start the metrics server", e);
+		}
+		server = s;
+		running = true;
+		return s.getAddress().getPort();
+	}
+
+	/**
+	 * Stop counting and serving
+	 */
+	public static synchronized void stop() {
+		running = false;
+		if (server == null)
+			return;
+		server.stop(0);
+		server = null;
+		executor.shutdown();
+		executor = null;
+	}
+
+	/**
+	 * @return the port of the server, -1 when not running
+	 */
+	public static synchronized int getPort() {
+		return server == null ? -1 : server.getAddress().getPort();
+	}
+
+	/**
+	 * @return the counts in the Prometheus text format, as served
+	 */
+	public static String scrape() {
+		StringBuilder b = new StringBuilder(4096);
+		audit.write(b);
+		metric.write(b);
+		return b.toString();
+	}
+
+	/**
+	 * Forget every count
+	 */
+	public static void clear() {
+		audit.series.clear();
+		metric.series.clear();
+	}
+
+	static void recordAudit(String serviceName, String statusCode, long nanos) {
+		audit.record(new Key(serviceName, statusCode), nanos / 1000L);
+	}
+
+	static void recordMetric(String serviceName, String targetEntity, String targetServiceName, String statusCode,
+			long nanos) {
+		metric.record(new Key(serviceName, targetEntity, targetServiceName, statusCode), nanos / 1000L);
+	}
+
+	private static void serve(HttpExchange exchange) throws IOException {
+		try {
+			String method = exchange.getRequestMethod();
+			if (!"GET".equals(method) && !"HEAD".equals(method)) {
+				exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+				exchange.sendResponseHeaders(405, -1);
+				return;
+			}
+			byte[] body = scrape().getBytes(UTF_8);
+			exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+			if ("HEAD".equals(method)) {
+				exchange.sendResponseHeaders(200, -1);
+				return;
+			}
+			exchange.sendResponseHeaders(200, body.length);
+			OutputStream out = exchange.getResponseBody();
+			out.write(body);
+			out.close();
+		} finally {
+			exchange.close();
+		}
+	}
+
+	/**
+	 * The label values of one series
+	 */
+	private static final class Key {
+		final String[] values;
+		private final int hash;
+
+		Key(String... values) {
+			int h = 0;
+			for (int i = 0; i < values.length; i++) {
+				String v = values[i];
+				if (v == null)
+					v = "";
+				else if (v.length() > MAX_LABEL_LENGTH)
+					v = v.substring(0, MAX_LABEL_LENGTH);
+				values[i] = v;
+				h = h * 31 + v.hashCode();
+			}
+			this.values = values;
+			hash = h;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Key))
+				return false;
+			Key k = (Key) o;
+			if (hash != k.hash || values.length != k.values.length)
+				return false;
+			for (int i = 0; i < values.length; i++) {
+				if (!values[i].equals(k.values[i]))
+					return false;
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * The counts of one label combination. The buckets are not cumulative, they are summed up when written.
+	 */
+	private static final class Series {
+		final AtomicLongArray buckets = new AtomicLongArray(BOUNDS.length);
+		final AtomicLong sumMicros = new AtomicLong();
+
+		void record(long micros) {
+			if (micros < 0)
+				micros = 0;
+			int i = 0;
+			while (i < BOUNDS_MICROS.length && micros > BOUNDS_MICROS[i])
+				i++;
+			buckets.incrementAndGet(i);
+			sumMicros.addAndGet(micros);
+		}
+	}
+
+	/**
+	 * A counter and a histogram with the same labels
+	 */
+	private static final class Family {
+		final String counter;
+		final String counterHelp;
+		final String histogram;
+		final String histogramHelp;
+		final String[] labels;
+		final Key overflow;
+		final ConcurrentMap<Key, Series> series = new ConcurrentHashMap<Key, Series>();
+
+		Family(String counter, String counterHelp, String histogram, String histogramHelp, String[] labels) {
+			this.counter = counter;
+			this.counterHelp = counterHelp;
+			this.histogram = histogram;
+			this.histogramHelp = histogramHelp;
+			this.labels = labels;
+			String[] other = new String[labels.length];
+			for (int i = 0; i < other.length; i++)
+				other[i] = "other";
+			overflow = new Key(other);
+		}
+
+		void record(Key key, long micros) {
+			Series s = series.get(key);
+			if (s == null) {
+				if (series.size() >= MAX_SERIES)
+					key = overflow;
+				s = series.get(key);
+				if (s == null) {
+					Series created = new Series();
+					s = series.putIfAbsent(key, created);
+					if (s == null)
+						s = created;
+				}
+			}
+			s.record(micros);
+		}
+
+		void write(StringBuilder b) {
+			List<Key> keys = new ArrayList<Key>(series.keySet());
+			Collections.sort(keys, KEY_ORDER);
+			// one consistent read of each series for both metrics
+			long[][] counts = new long[keys.size()][];
+			long[] sums = new long[keys.size()];
+			for (int k = 0; k < keys.size(); k++) {
+				Series s = series.get(keys.get(k));
+				long[] c = new long[BOUNDS.length];
+				long total = 0;
+				for (int i = 0; i < c.length; i++) {
+					total += s.buckets.get(i);
+					c[i] = total;
+				}
+				counts[k] = c;
+				sums[k] = s.sumMicros.get();
+			}
+			b.append("# HELP ").append(counter).append(' ').append(counterHelp).append('\n');
+			b.append("# TYPE ").append(counter).append(" counter\n");
+			for (int k = 0; k < keys.size(); k++) {
+				b.append(counter);
+				labels(b, keys.get(k), null);
+				b.append(' ').append(counts[k][BOUNDS.length - 1]).append('\n');
+			}
+			b.append("# HELP ").append(histogram).append(' ').append(histogramHelp).append('\n');
+			b.append("# TYPE ").append(histogram).append(" histogram\n");
+			for (int k = 0; k < keys.size(); k++) {
+				Key key = keys.get(k);
+				for (int i = 0; i < BOUNDS.length; i++) {
+					b.append(histogram).append("_bucket");
+					labels(b, key, BOUNDS[i]);
+					b.append(' ').append(counts[k][i]).append('\n');
+				}
+				b.append(histogram).append("_sum");
+				labels(b, key, null);
+				b.append(' ').append(sums[k] / 1000000L).append('.');
+				String micros = String.valueOf(sums[k] % 1000000L);
+				for (int i = micros.length(); i < 6; i++)
+					b.append('0');
+				b.append(micros).append('\n');
+				b.append(histogram).append("_count");
+				labels(b, key, null);
+				b.append(' ').append(counts[k][BOUNDS.length - 1]).append('\n');
+			}
+		}
+
+		private void labels(StringBuilder b, Key key, String le) {
+			b.append('{');
+			for (int i = 0; i < labels.length; i++) {
+				if (i > 0)
+					b.append(',');
+				b.append(labels[i]).append("=\"");
+				escape(b, key.values[i]);
+				b.append('"');
+			}
+			if (le != null)
+				b.append(",le=\"").append(le).append('"');
+			b.append('}');
+		}
+	}
+
+	private static final Comparator<Key> KEY_ORDER = new Comparator<Key>() {
+		@Override
+		public int compare(Key a, Key b) {
+			for (int i = 0; i < a.values.length; i++) {
+				int c = a.values[i].compareTo(b.values[i]);
+				if (c != 0)
+					return c;
+			}
+			return 0;
+		}
+	};
+
+	private static void escape(StringBuilder b, String value) {
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '\\')
+				b.append("\\\\");
+			else if (c == '"')
+				b.append("\\\"");
+			else if (c == '\n')
+				b.append("\\n");
+			else
+				b.append(c);
+		}
+	}
+}
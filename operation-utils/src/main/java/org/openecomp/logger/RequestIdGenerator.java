@@ -0,0 +1,36 @@
+
+/*-
+ * ============LICENSE_START==========================================
+ * OPENECOMP - DCAE
+ * ===================================================================
+ * Copyright (c) 2017 AT&T Intellectual Property. All rights reserved.
+ * ===================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END============================================
+ */
+	
+package org.openecomp.logger;
+
+/**
+ * Source of the RequestId values the EcompLogger fills in when a request arrives without one. Implementations must be
+ * thread-safe and should not block, they are called on the logging path.
+ * 
+ * @see EcompLogger#setRequestIdGenerator(RequestIdGenerator)
+ */
+public interface RequestIdGenerator {
+
+	/**
+	 * @return a new, unique request id
+	 */
+	String newRequestId();
+}
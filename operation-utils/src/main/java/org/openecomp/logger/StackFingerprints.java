@@ -0,0 +1,164 @@
+
+/*-
+ * ============LICENSE_START==========================================
+ * OPENECOMP - DCAE
+ * ===================================================================
+ * Copyright (c) 2017 AT&T Intellectual Property. All rights reserved.
+ * ===================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END============================================
+ */
+	
+package org.openecomp.logger;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes each distinct stack trace once per interval in the Throwable variants of error, warn and info. A trace is
+ * identified by a fingerprint, a hash of the exception classes of the cause chain and of the class, method and line of
+ * their frames, computed without rendering the trace. The first time a fingerprint is seen in an interval the record
+ * carries the full normalized trace after "stack &lt;fingerprint&gt;:", and the exception is logged at debug as before.
+ * After that only the fingerprint and the first line of the trace (the exception and its message) are written.
+ * 
+ * At most {@link #MAX_FINGERPRINTS} fingerprints are remembered, when there are more they are all forgotten.
+ * 
+ * System properties: org.openecomp.logger.stackFingerprints (true to enable) and
+ * org.openecomp.logger.stackFingerprints.interval (seconds, 60 by default).
+ */
+public final class StackFingerprints {
+
+	public static final String ENABLED_PROPERTY = "org.openecomp.logger.stackFingerprints";
+
+	public static final String INTERVAL_PROPERTY = "org.openecomp.logger.stackFingerprints.interval";
+
+	static final int MAX_FINGERPRINTS = 10000;
+
+	// a cause chain deeper than this is hashed up to here only
+	private static final int MAX_CAUSES = 16;
+
+	private static final ConcurrentMap<Long, AtomicLong> lastWritten = new ConcurrentHashMap<Long, AtomicLong>();
+
+	private static volatile boolean enabled = Boolean.getBoolean(ENABLED_PROPERTY);
+
+	private static volatile long intervalMillis = Long.getLong(INTERVAL_PROPERTY, 60) * 1000L;
+
+	private StackFingerprints() {
+	}
+
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	public static void setEnabled(boolean on) {
+		enabled = on;
+		if (!on)
+			lastWritten.clear();
+	}
+
+	/**
+	 * @param seconds
+	 *            how long a written trace is not written again
+	 */
+	public static void setInterval(long seconds) {
+		intervalMillis = seconds * 1000L;
+	}
+
+	/**
+	 * @return the fingerprint of the stack trace of t as 16 hex digits
+	 */
+	public static String fingerprint(Throwable t) {
+		return hex(hash(t));
+	}
+
+	/**
+	 * The text to log for the trace of t
+	 */
+	static Trace of(Throwable t) {
+		if (!enabled)
+			return new Trace(normalized(t), true);
+		long h = hash(t);
+		String prefix = "stack " + hex(h) + ": ";
+		if (firstInInterval(h))
+			return new Trace(prefix + normalized(t), true);
+		return new Trace(prefix + EcompLogger.normalize(t.toString()), false);
+	}
+
+	/**
+	 * The stack trace of t printed on one line, with the '|' field separators replaced
+	 */
+	static String normalized(Throwable t) {
+		StringWriter sw = new StringWriter();
+		PrintWriter pw = new PrintWriter(sw);
+		t.printStackTrace(pw);
+		return EcompLogger.normalize(sw.toString());
+	}
+
+	private static String hex(long h) {
+		String hex = Long.toHexString(h);
+		return "0000000000000000".substring(hex.length()) + hex;
+	}
+
+	private static boolean firstInInterval(long h) {
+		long now = System.currentTimeMillis();
+		Long key = Long.valueOf(h);
+		AtomicLong last = lastWritten.get(key);
+		if (last == null) {
+			if (lastWritten.size() >= MAX_FINGERPRINTS)
+				lastWritten.clear();
+			return lastWritten.putIfAbsent(key, new AtomicLong(now)) == null;
+		}
+		long l = last.get();
+		return now - l >= intervalMillis && last.compareAndSet(l, now);
+	}
+
+	private static long hash(Throwable t) {
+		long h = 1125899906842597L;
+		for (int depth = 0; t != null && depth < MAX_CAUSES; depth++) {
+			h = 31 * h + t.getClass().getName().hashCode();
+			for (StackTraceElement e : t.getStackTrace()) {
+				h = 31 * h + e.getClassName().hashCode();
+				h = 31 * h + e.getMethodName().hashCode();
+				h = 31 * h + e.getLineNumber();
+			}
+			Throwable cause = t.getCause();
+			t = cause == t ? null : cause;
+		}
+		// spread the bits, so that similar traces do not get similar looking fingerprints
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		return h ^ h >>> 33;
+	}
+
+	static final class Trace {
+		/**
+		 * The normalized trace, or the fingerprint and first line of a trace already written in this interval
+		 */
+		final String text;
+
+		/**
+		 * false if the trace was written already in this interval
+		 */
+		final boolean full;
+
+		Trace(String text, boolean full) {
+			this.text = text;
+			this.full = full;
+		}
+	}
+}
@@ -28,9 +28,7 @@ import static com.att.eelf.configuration.Configuration.MDC_TARGET_ENTITY;
 import static com.att.eelf.configuration.Configuration.MDC_TARGET_SERVICE_NAME;
 
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
-import java.util.Date;
-import java.util.List;
+import java.util.Arrays;
 import java.util.TimeZone;
 
 import org.slf4j.MDC;
@@ -46,15 +44,42 @@ public class Stopwatch {
 	
 	public static String ISO_FORMAT = "yyyy-MM-dd'T'HH:mm:ss.SSSZ";
     public static final TimeZone utc = TimeZone.getTimeZone("UTC");
+    /**
+     * @deprecated SimpleDateFormat is not thread-safe, use {@link IsoTimestamp}
+     */
+    @Deprecated
     public static final SimpleDateFormat isoFormatter = new SimpleDateFormat(ISO_FORMAT);
     public static EcompLogger ecompLogger = EcompLogger.getEcompLogger();
 
+    /**
+     * MDC field with the elapsed time in microseconds, next to the millisecond ElapsedTime
+     */
+    public static final String ELAPSED_TIME_MICROS = "ElapsedTimeMicros";
+
+    /**
+     * How durations are measured. Begin and end timestamps are always wall clock time.
+     */
+    public enum Clock {
+        /**
+         * System.nanoTime(), never goes backwards and resolves sub-millisecond calls
+         */
+        MONOTONIC,
+        /**
+         * System.currentTimeMillis() as in earlier releases, millisecond resolution and subject to clock adjustments
+         */
+        WALL_CLOCK
+    }
+
+    public static final String CLOCK_PROPERTY = "org.openecomp.logger.stopwatch.clock";
+
+    private static volatile Clock clock = initialClock();
+
     /**
      * This is the object that maintains our state on the thread local storage
      */
     public static class StopwatchState {
         /**
-         * The accumulated duration
+         * The accumulated duration in nanoseconds
          */
         private long duration;
 
@@ -68,6 +93,11 @@ public class Stopwatch {
          */
         private long startTime;
 
+        /**
+         * System.nanoTime() at the last start
+         */
+        private long startNanos;
+
 		public String target;
 
 		public String op;
@@ -77,83 +107,175 @@ public class Stopwatch {
 			return "StopwatchState [duration=" + duration + ", running=" + running + ", startTime=" + startTime + "]";
 		}
 
+		void copyFrom(StopwatchState other) {
+			duration = other.duration;
+			running = other.running;
+			startTime = other.startTime;
+			startNanos = other.startNanos;
+			target = other.target;
+			op = other.op;
+		}
+
     }
     
+    /**
+     * Array backed stack of watches. Popped states stay in their slot and are reset on the next push, so balanced
+     * push/pop pairs allocate nothing once the stack has reached its working depth.
+     */
     public static class StopwatchStateStack {
-        private List<StopwatchState> l = new ArrayList<Stopwatch.StopwatchState>();
+        /**
+         * Depth at which unbalanced pushes are reported, the stack keeps growing past it
+         */
+        static final int MAX_EXPECTED_DEPTH = 256;
+
+        private StopwatchState[] slots = new StopwatchState[8];
+
+        private int size;
 
 		public StopwatchState top() {
-//			System.out.println("WWWWWW: " + Thread.currentThread().getName() + ": top 1 " + l);
-			if (l.size() == 0) {
+			if (size == 0) {
 				ecompLogger.warn(GenericMessagesMessageEnum.ECOMP_LOGGER_TOP_ON_EMPTY_STACK);
-//				System.out.println("WWWWWW: " + Thread.currentThread().getName() + ": top empty");
 				push(null,null);
 			}
-//			System.out.println("WWWWWW: " + Thread.currentThread().getName() + ": top 2 " + l);
-			return l.get(l.size()-1);
+			return slots[size - 1];
 		}
 
 		public void push(String targetEntity, String target) {
-			l.add(new StopwatchState());
-			top().op = targetEntity;
-			top().target = target;
-//			System.out.println("WWWWWW: " + Thread.currentThread().getName() + ": push 2 " + l);
+			if (size == slots.length) {
+				slots = Arrays.copyOf(slots, size * 2);
+			}
+			StopwatchState state = slots[size];
+			if (state == null) {
+				state = new StopwatchState();
+				slots[size] = state;
+			} else {
+				state.duration = 0;
+				state.running = false;
+				state.startTime = 0;
+				state.startNanos = 0;
+			}
+			state.op = targetEntity;
+			state.target = target;
+			if (++size == MAX_EXPECTED_DEPTH) {
+				ecompLogger.warn(GenericMessagesMessageEnum.ECOMP_LOGGER_DEEP_STACK, String.valueOf(size));
+			}
 		}
 
 		public void pop() {
-//			System.out.println("WWWWWW: " + Thread.currentThread().getName() + ": pop 1 " + l);
-			if (l.size() == 0) {
+			if (size == 0) {
 				ecompLogger.warn(GenericMessagesMessageEnum.ECOMP_LOGGER_POP_ON_EMPTY_STACK);
 				return;
 			}
-			l.remove(l.size()-1);
+			// drop the strings, the state object itself is reused
+			StopwatchState state = slots[--size];
+			state.op = null;
+			state.target = null;
 		}
 
 		public void clear() {
-//			System.out.println("WWWWWW: " + Thread.currentThread().getName() + ": clear 1" + l);
-			l.clear();
+			while (size > 0)
+				pop();
+		}
+
+		public boolean isEmpty() {
+			return size == 0;
+		}
+
+		/**
+		 * @return an independent stack with copies of the watches of this one
+		 */
+		StopwatchStateStack copy() {
+			StopwatchStateStack c = new StopwatchStateStack();
+			if (size > c.slots.length)
+				c.slots = new StopwatchState[slots.length];
+			for (int i = 0; i < size; i++) {
+				c.slots[i] = new StopwatchState();
+				c.slots[i].copyFrom(slots[i]);
+			}
+			c.size = size;
+			return c;
 		}
     }
 
-    /**
-     * Thread local storage wrapper
-     */
-    private static ThreadLocal<StopwatchStateStack> tls = new ThreadLocal<>();
-    
     static {
         isoFormatter.setTimeZone(utc);
     }
 
     /**
-     * Looks up the Thread Local storage object containing the Stopwatch state, and creates it if it does not already
-     * exist.
+     * Looks up the storage object containing the Stopwatch state (see {@link WatchStore}), and creates it if it does
+     * not already exist.
      * 
      * @return The state object
      */
     private static StopwatchStateStack getState() {
-        StopwatchStateStack state = tls.get();
-        if (state == null) {
-            state = new StopwatchStateStack();
-            tls.set(state);
-        }
-        return state;
+        return WatchStore.get();
     }
 
     /**
-     * Clears (and possibly stops) the watch.
+     * @return a copy of the watches of the calling thread, for handing over to another thread
+     */
+    static StopwatchStateStack captureStack() {
+        StopwatchStateStack stack = WatchStore.peek();
+        return stack == null ? new StopwatchStateStack() : stack.copy();
+    }
+
+    /**
+     * Install the watches of the calling thread
+     * 
+     * @return the watches the thread had before, may be null
+     */
+    static StopwatchStateStack swapStack(StopwatchStateStack stack) {
+        return WatchStore.swap(stack);
+    }
+
+    /**
+     * Clears (and possibly stops) the watch, and releases the storage the calling thread holds for it.
      */
     public static void clear() {
-        getState().clear();
+        StopwatchStateStack stack = WatchStore.peek();
+        if (stack != null)
+            stack.clear();
+        WatchStore.release();
+    }
+
+    private static Clock initialClock() {
+        String value = System.getProperty(CLOCK_PROPERTY);
+        if (value != null) {
+            try {
+                return Clock.valueOf(value.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                // fall through to the default
+            }
+        }
+        return Clock.MONOTONIC;
+    }
+
+    public static Clock getClock() {
+        return clock;
+    }
+
+    public static void setClock(Clock clock) {
+        Stopwatch.clock = clock == null ? Clock.MONOTONIC : clock;
     }
 
     /**
-     * The accumulated duration of the watch (in nano-seconds)
+     * The accumulated duration of the watch (in milliseconds)
      * 
      * @return The accumulated time
      */
     public static long getDuration() {
         StopwatchState state = getState().top();
-        return state.duration;
+        return state.duration / 1000000L;
+    }
+
+    /**
+     * The accumulated duration of the watch (in microseconds)
+     * 
+     * @return The accumulated time
+     */
+    public static long getDurationMicros() {
+        StopwatchState state = getState().top();
+        return state.duration / 1000L;
     }
 
     /**
@@ -170,11 +292,16 @@ public class Stopwatch {
      * Starts the watch if not already running.
      */
     public static void start() {
-        StopwatchState state = getState().top();
+        start(getState().top(), true);
+    }
+
+    private static void start(StopwatchState state, boolean publish) {
         if (!state.running) {
             state.running = true;
             state.startTime = System.currentTimeMillis();
-            MDC.put(MDC_BEGIN_TIMESTAMP, isoFormatter.format(new Date(state.startTime)));
+            state.startNanos = System.nanoTime();
+            if (publish)
+                MDC.put(MDC_BEGIN_TIMESTAMP, IsoTimestamp.format(state.startTime));
         }
     }
 
@@ -182,18 +309,23 @@ public class Stopwatch {
      * Stops the accumulation of time on the watch if running
      */
     public static void stop() {
-        StopwatchState state = getState().top();
+        stop(getState().top(), EventFields.THREAD_MDC);
+    }
+
+    private static void stop(StopwatchState state, EventFields fields) {
         if (state.running) {
+            long stopNanos = System.nanoTime();
             long stopTime = System.currentTimeMillis();
-            state.duration += (stopTime - state.startTime);
+            state.duration += elapsed(state, stopTime, stopNanos);
             state.running = false;
-            MDC.put(MDC_END_TIMESTAMP,isoFormatter.format(new Date(stopTime)));
-            MDC.put(MDC_ELAPSED_TIME, String.valueOf(state.duration));
+            fields.put(MDC_END_TIMESTAMP, IsoTimestamp.format(stopTime));
+            fields.put(MDC_ELAPSED_TIME, String.valueOf(state.duration / 1000000L));
+            fields.put(ELAPSED_TIME_MICROS, String.valueOf(state.duration / 1000L));
         }
 		if (!EcompLogger.isNullOrEmpty(state.target))
-			MDC.put(MDC_TARGET_ENTITY, state.target);
+			fields.put(MDC_TARGET_ENTITY, state.target);
 		if (state.op != null)
-			MDC.put(MDC_TARGET_SERVICE_NAME, state.op);
+			fields.put(MDC_TARGET_SERVICE_NAME, state.op);
     }
 
     /**
@@ -203,48 +335,91 @@ public class Stopwatch {
     public static double getCurrentDuration() {
         StopwatchState state = getState().top();
         if (state.running) {
-            return (System.currentTimeMillis() - state.startTime);
+            return elapsed(state, System.currentTimeMillis(), System.nanoTime()) / 1000000L;
         }
         return 0L;
     }
+
+    // nanoseconds since the last start, by the configured clock
+    private static long elapsed(StopwatchState state, long now, long nowNanos) {
+        if (clock == Clock.WALL_CLOCK)
+            return (now - state.startTime) * 1000000L;
+        return nowNanos - state.startNanos;
+    }
     
     public static void pushNewWatch(String targetEntity, String target) {
-//    	System.out.println("WWWWWW: " + Thread.currentThread().getName() + ": pushNewWatch 1" + getState().l);
     	getState().push(targetEntity,target);
-//    	System.out.println("WWWWWW: " + Thread.currentThread().getName() + ": pushNewWatch 2" + getState().l);
     }
     
     public static void popWatch() {
-    	stop();
-    	getState().pop();
+    	popWatchNanos();
+    }
+
+    /**
+     * @return the accumulated duration of the popped watch, in nanoseconds
+     */
+    static long popWatchNanos() {
+    	StopwatchStateStack stack = getState();
+    	StopwatchState state = stack.top();
+    	stop(state, EventFields.THREAD_MDC);
+    	long duration = state.duration;
+    	stack.pop();
+    	WatchStore.popped(stack);
+    	return duration;
     }
 
 	public static void clearAndStart() {
-//		System.out.println("WWWWWW: " + Thread.currentThread().getName() + " clearAndStart 1" + getState().l);
-		clear();
-//		System.out.println("WWWWWW: " + Thread.currentThread().getName() + ": clearAndStart 2" + getState().l);
-		pushAndStart(null,null);
-//		System.out.println("WWWWWW: " + Thread.currentThread().getName() + ": clearAndStart 3" + getState().l);
+		clearAndStart(true);
+	}
+
+	/**
+	 * @param publish
+	 *            false to leave the MDC alone, for records assembled from an EcompLogContext
+	 */
+	static void clearAndStart(boolean publish) {
+		StopwatchStateStack stack = getState();
+		stack.clear();
+		stack.push(null,null);
+		start(stack.top(), publish);
+	}
+
+	/**
+	 * Stop and pop the top watch, writing its timestamps and targets into the fields of an event rather than the MDC
+	 * 
+	 * @return the accumulated duration of the watch, in nanoseconds
+	 */
+	static long stopAndPop(EventFields.Event fields) {
+		StopwatchStateStack stack = getState();
+		StopwatchState state = stack.top();
+		// the start time was not published when the watch started
+		if (state.running)
+			fields.put(MDC_BEGIN_TIMESTAMP, IsoTimestamp.format(state.startTime));
+		stop(state, fields);
+		long duration = state.duration;
+		stack.pop();
+		WatchStore.popped(stack);
+		return duration;
 	}
 
 	public static void stopAndPop() {
-//		System.out.println("WWWWWW: " + Thread.currentThread().getName() + ": stopAndPop 1" + getState().l);
-		stop();
-//		System.out.println("WWWWWW: " + Thread.currentThread().getName() + ": stopAndPop 2" + getState().l);
+		// popWatch() stops the watch before popping it
 		popWatch();
-//		System.out.println("WWWWWW: " + Thread.currentThread().getName() + ": stopAndPop 3" + getState().l);
 	}
 
 	public static void pushAndStart(String targetEntity, String target) {
-//		System.out.println("WWWWWW: " + Thread.currentThread().getName() + ": pushAndStart 1" + getState().l);
-		pushNewWatch(targetEntity,target);
-//		System.out.println("WWWWWW: " + Thread.currentThread().getName() + ": pushAndStart 2" + getState().l);
-		start();
-//		System.out.println("WWWWWW: " + Thread.currentThread().getName() + ": pushAndStart 3" + getState().l);
+		pushAndStart(targetEntity, target, true);
+	}
+
+	static void pushAndStart(String targetEntity, String target, boolean publish) {
+		StopwatchStateStack stack = getState();
+		stack.push(targetEntity,target);
+		start(stack.top(), publish);
 	}
 
 	public static boolean emptyStack() {
-		return getState().l.size() == 0;
+		// don't create a stack just to find it empty
+		StopwatchStateStack stack = WatchStore.peek();
+		return stack == null || stack.isEmpty();
 	}
 
 	public static String getTopTarget() {
@@ -0,0 +1,79 @@
+
+/*-
+ * ============LICENSE_START==========================================
+ * OPENECOMP - DCAE
+ * ===================================================================
+ * Copyright (c) 2017 AT&T Intellectual Property. All rights reserved.
+ * ===================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END============================================
+ */
+	
+package org.openecomp.logger;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Time ordered UUIDs in the version 7 layout: 48 bits of epoch milliseconds followed by 74 random bits from the
+ * calling thread's ThreadLocalRandom, so threads never contend. Ids sort by creation time at millisecond granularity
+ * and render like any other UUID.
+ * 
+ * The text is written into a per thread buffer, and the timestamp part is only rendered again when the millisecond
+ * changes.
+ */
+public class TimeOrderedRequestIdGenerator implements RequestIdGenerator {
+
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	private static final class Buffer {
+		final char[] chars = "00000000-0000-7000-8000-000000000000".toCharArray();
+		long millis = -1;
+	}
+
+	private final ThreadLocal<Buffer> buffers = new ThreadLocal<Buffer>() {
+		@Override
+		protected Buffer initialValue() {
+			return new Buffer();
+		}
+	};
+
+	@Override
+	public String newRequestId() {
+		Buffer b = buffers.get();
+		char[] c = b.chars;
+		long millis = System.currentTimeMillis();
+		if (millis != b.millis) {
+			b.millis = millis;
+			// unix_ts_ms, 48 bits: xxxxxxxx-xxxx
+			hex(c, 0, millis >>> 16, 8);
+			hex(c, 9, millis, 4);
+		}
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		// version 7 and rand_a (12 bits): 7xxx
+		hex(c, 15, random.nextInt(), 3);
+		// variant 10 and rand_b (62 bits): [89ab]xxx-xxxxxxxxxxxx
+		long r = random.nextLong();
+		c[19] = HEX[8 | (int) (r >>> 60) & 0x3];
+		hex(c, 20, r >>> 48, 3);
+		hex(c, 24, r, 12);
+		return new String(c);
+	}
+
+	// the low 4 * digits bits of value as hex into c[offset..offset+digits)
+	private static void hex(char[] c, int offset, long value, int digits) {
+		for (int i = offset + digits - 1; i >= offset; i--) {
+			c[i] = HEX[(int) value & 0xf];
+			value >>>= 4;
+		}
+	}
+}
@@ -0,0 +1,156 @@
+
+/*-
+ * ============LICENSE_START==========================================
+ * OPENECOMP - DCAE
+ * ===================================================================
+ * Copyright (c) 2017 AT&T Intellectual Property. All rights reserved.
+ * ===================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END============================================
+ */
+	
+package org.openecomp.logger;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.Callable;
+
+import org.openecomp.logger.Stopwatch.StopwatchStateStack;
+
+/**
+ * Holds the Stopwatch watches of the running code. This version keeps them in a ThreadLocal. The version in
+ * src/main/java25 keeps the watches of a {@link LogScope} in a ScopedValue instead.
+ */
+final class WatchStore {
+
+	/**
+	 * @return true when {@link #runScoped} and {@link #callScoped} bind the watches to a ScopedValue
+	 */
+	static boolean scopedValues() {
+		// a method rather than a constant, which would be compiled into the callers
+		return false;
+	}
+
+	private static final ThreadLocal<StopwatchStateStack> tls = new ThreadLocal<StopwatchStateStack>();
+
+	// Thread.isVirtual() on Java 21 and later, null before. A constant handle is inlined by the JIT, unlike a
+	// reflective call.
+	private static final MethodHandle isVirtual;
+
+	static {
+		MethodHandle m;
+		try {
+			m = MethodHandles.publicLookup().findVirtual(Thread.class, "isVirtual",
+					MethodType.methodType(boolean.class));
+		} catch (NoSuchMethodException | IllegalAccessException e) {
+			m = null;
+		}
+		isVirtual = m;
+	}
+
+	private WatchStore() {
+	}
+
+	/**
+	 * @return the watches of the calling thread, created if it has none
+	 */
+	static StopwatchStateStack get() {
+		StopwatchStateStack stack = tls.get();
+		if (stack == null) {
+			stack = new StopwatchStateStack();
+			tls.set(stack);
+		}
+		return stack;
+	}
+
+	/**
+	 * @return the watches of the calling thread, or null if it has none
+	 */
+	static StopwatchStateStack peek() {
+		return tls.get();
+	}
+
+	/**
+	 * @param stack
+	 *            the new watches of the calling thread, null to drop them
+	 * @return the previous watches, may be null
+	 */
+	static StopwatchStateStack swap(StopwatchStateStack stack) {
+		StopwatchStateStack previous = tls.get();
+		if (stack == null)
+			tls.remove();
+		else
+			tls.set(stack);
+		return previous;
+	}
+
+	/**
+	 * Drop the watches of the calling thread
+	 */
+	static void release() {
+		tls.remove();
+	}
+
+	/**
+	 * Called when a watch was popped. A platform thread keeps its empty stack so that the next request reuses it, a
+	 * virtual thread runs a single request and would only pin the stack until it ends.
+	 */
+	static void popped(StopwatchStateStack stack) {
+		if (stack.isEmpty() && isVirtualThread())
+			tls.remove();
+	}
+
+	/**
+	 * Run the task with watches of its own. Without ScopedValue they are swapped in the ThreadLocal, as
+	 * {@link #runSwapped} does.
+	 */
+	static void runScoped(Runnable task) {
+		runSwapped(task);
+	}
+
+	static <V> V callScoped(Callable<V> task) throws Exception {
+		return callSwapped(task);
+	}
+
+	/**
+	 * Run the task with watches of its own, put in place of those of the calling thread and swapped back when it ends
+	 */
+	static void runSwapped(Runnable task) {
+		StopwatchStateStack previous = swap(null);
+		try {
+			task.run();
+		} finally {
+			swap(previous);
+		}
+	}
+
+	static <V> V callSwapped(Callable<V> task) throws Exception {
+		StopwatchStateStack previous = swap(null);
+		try {
+			return task.call();
+		} finally {
+			swap(previous);
+		}
+	}
+
+	private static boolean isVirtualThread() {
+		if (isVirtual == null)
+			return false;
+		try {
+			return (boolean) isVirtual.invokeExact(Thread.currentThread());
+		} catch (Throwable e) {
+			return false;
+		}
+	}
+}
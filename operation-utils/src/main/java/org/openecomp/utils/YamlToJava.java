@@ -87,6 +87,7 @@ public class YamlToJava {
 			OutputStreamWriter w;
 			SimpleTemplateEngine engine = new SimpleTemplateEngine();
 			if (m.containsKey("messages")) {
+				addMessageMetadata((Map<String, Object>) m.get("messages"));
 				w = FileUtils.filename2writer(ofile1);
 				w.append(engine.createTemplate(getTemplate("properties_template")).make(m).toString());
 				w.close();
@@ -109,6 +110,60 @@ public class YamlToJava {
 		}
 	}
 
+	/**
+	 * Resolve what the logger needs per message at build time, so the generated enum carries it as final fields
+	 * instead of the logger looking it up in the resource bundle per event.
+	 */
+	@SuppressWarnings("unchecked")
+	private static void addMessageMetadata(Map<String, Object> messages) {
+		for (Map.Entry<String, Object> e : messages.entrySet()) {
+			Map<String, Object> v = (Map<String, Object>) e.getValue();
+			String errorCode = String.valueOf(v.get("errorCode")).trim();
+			String identifier = e.getKey() + "-" + errorCode;
+			String description = v.get("description") == null ? "" : String.valueOf(v.get("description")).trim();
+			String category = category(errorCode);
+			v.put("javaIdentifier", javaString(identifier));
+			v.put("javaDescription", javaString(description));
+			v.put("category", category);
+		}
+	}
+
+	// the last letter of the error code is its classification: I = Information, W = Warning, E = Error, F = Fatal
+	private static String category(String errorCode) {
+		char c = errorCode.isEmpty() ? 'W' : Character.toUpperCase(errorCode.charAt(errorCode.length() - 1));
+		switch (c) {
+		case 'I':
+			return "INFO";
+		case 'E':
+			return "ERROR";
+		case 'F':
+			return "FATAL";
+		default:
+			return "WARN";
+		}
+	}
+
+	private static String javaString(String s) {
+		StringBuilder b = new StringBuilder(s.length());
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			switch (c) {
+			case '"':
+				b.append("\\\"");
+				break;
+			case '\\':
+				b.append("\\\\");
+				break;
+			case '\n':
+				b.append("\\n");
+				break;
+			default:
+				b.append(c);
+			}
+		}
+		return b.toString();
+	}
+
 	private static String getTemplate(String res) throws IOException {
 		InputStream in = null;
 		try {
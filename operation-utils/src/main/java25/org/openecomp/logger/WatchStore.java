@@ -0,0 +1,140 @@
+
+/*-
+ * ============LICENSE_START==========================================
+ * OPENECOMP - DCAE
+ * ===================================================================
+ * Copyright (c) 2017 AT&T Intellectual Property. All rights reserved.
+ * ===================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END============================================
+ */
+	
+package org.openecomp.logger;
+
+import java.util.concurrent.Callable;
+
+import org.openecomp.logger.Stopwatch.StopwatchStateStack;
+
+/**
+ * Holds the Stopwatch watches of the running code. Inside a {@link LogScope} with the SCOPED_VALUE backend they are
+ * bound to the scope in a ScopedValue, elsewhere they are kept in a ThreadLocal.
+ */
+final class WatchStore {
+
+	/**
+	 * @return true when {@link #runScoped} and {@link #callScoped} bind the watches to a ScopedValue
+	 */
+	static boolean scopedValues() {
+		// a method rather than a constant, which would be compiled into the callers
+		return true;
+	}
+
+	private static final ThreadLocal<StopwatchStateStack> tls = new ThreadLocal<StopwatchStateStack>();
+
+	private static final ScopedValue<Slot> scope = ScopedValue.newInstance();
+
+	/**
+	 * The watches of one scope. Bindings are inherited by the subtasks of a StructuredTaskScope, which must not share
+	 * the stack of the thread that opened the scope, so a slot is only used by its owner.
+	 */
+	private static final class Slot {
+		final Thread owner = Thread.currentThread();
+
+		StopwatchStateStack stack;
+	}
+
+	private WatchStore() {
+	}
+
+	private static Slot slot() {
+		if (!scope.isBound())
+			return null;
+		Slot slot = scope.get();
+		return slot.owner == Thread.currentThread() ? slot : null;
+	}
+
+	static StopwatchStateStack get() {
+		Slot slot = slot();
+		if (slot != null) {
+			if (slot.stack == null)
+				slot.stack = new StopwatchStateStack();
+			return slot.stack;
+		}
+		StopwatchStateStack stack = tls.get();
+		if (stack == null) {
+			stack = new StopwatchStateStack();
+			tls.set(stack);
+		}
+		return stack;
+	}
+
+	static StopwatchStateStack peek() {
+		Slot slot = slot();
+		return slot != null ? slot.stack : tls.get();
+	}
+
+	static StopwatchStateStack swap(StopwatchStateStack stack) {
+		Slot slot = slot();
+		if (slot != null) {
+			StopwatchStateStack previous = slot.stack;
+			slot.stack = stack;
+			return previous;
+		}
+		StopwatchStateStack previous = tls.get();
+		if (stack == null)
+			tls.remove();
+		else
+			tls.set(stack);
+		return previous;
+	}
+
+	static void release() {
+		Slot slot = slot();
+		if (slot != null)
+			slot.stack = null;
+		else
+			tls.remove();
+	}
+
+	static void popped(StopwatchStateStack stack) {
+		// a scope drops its stack when it ends
+		if (stack.isEmpty() && Thread.currentThread().isVirtual() && slot() == null)
+			tls.remove();
+	}
+
+	static void runScoped(Runnable task) {
+		ScopedValue.where(scope, new Slot()).run(task);
+	}
+
+	static <V> V callScoped(Callable<V> task) throws Exception {
+		return ScopedValue.where(scope, new Slot()).call(task::call);
+	}
+
+	static void runSwapped(Runnable task) {
+		StopwatchStateStack previous = swap(null);
+		try {
+			task.run();
+		} finally {
+			swap(previous);
+		}
+	}
+
+	static <V> V callSwapped(Callable<V> task) throws Exception {
+		StopwatchStateStack previous = swap(null);
+		try {
+			return task.call();
+		} finally {
+			swap(previous);
+		}
+	}
+}
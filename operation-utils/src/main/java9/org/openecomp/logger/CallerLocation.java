@@ -0,0 +1,140 @@
+
+/*-
+ * ============LICENSE_START==========================================
+ * OPENECOMP - DCAE
+ * ===================================================================
+ * Copyright (c) 2017 AT&T Intellectual Property. All rights reserved.
+ * ===================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0 
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END============================================
+ */
+	
+package org.openecomp.logger;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Finds the code location ("class@method:line") that called into the EcompLogger, for the ClassName MDC field.
+ * 
+ * Java 9+ variant: {@link Mode#BOUNDED} walks the stack lazily with a StackWalker and stops at the first caller frame;
+ * the formatted location is cached per call site (class, method, bytecode index) so the line number lookup happens
+ * once per call site.
+ */
+public final class CallerLocation {
+
+	public enum Mode {
+		BOUNDED, FULL_STACK, OFF
+	}
+
+	public static final String MODE_PROPERTY = "org.openecomp.logger.callerLocation";
+
+	private static final int MAX_CACHED_CALL_SITES = 4096;
+
+	private static final StackWalker walker = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+
+	private static final ConcurrentMap<CallSite, String> callSites = new ConcurrentHashMap<>();
+
+	private static volatile Mode mode = initialMode();
+
+	private CallerLocation() {
+	}
+
+	public static Mode getMode() {
+		return mode;
+	}
+
+	public static void setMode(Mode m) {
+		mode = m == null ? Mode.BOUNDED : m;
+	}
+
+	static String find() {
+		switch (mode) {
+		case OFF:
+			return null;
+		case FULL_STACK:
+			return fullStack();
+		default:
+			return bounded();
+		}
+	}
+
+	private static String fullStack() {
+		for (StackTraceElement x : Thread.currentThread().getStackTrace()) {
+			String c = x.getClassName();
+			if (c.equals("java.lang.Thread") || c.equals("org.openecomp.logger.EcompLogger")
+					|| c.equals("org.openecomp.logger.Stopwatch") || c.equals("org.openecomp.logger.CallerLocation"))
+				continue;
+			return x.getClassName() + "@" + x.getMethodName() + ":" + x.getLineNumber();
+		}
+		return null;
+	}
+
+	private static String bounded() {
+		Optional<StackWalker.StackFrame> caller = walker
+				.walk(frames -> frames.filter(f -> !isLoggerClass(f.getDeclaringClass())).findFirst());
+		if (!caller.isPresent())
+			return null;
+		StackWalker.StackFrame f = caller.get();
+		CallSite site = new CallSite(f.getDeclaringClass(), f.getMethodName(), f.getByteCodeIndex());
+		String location = callSites.get(site);
+		if (location == null) {
+			location = f.getClassName() + "@" + f.getMethodName() + ":" + f.getLineNumber();
+			if (callSites.size() < MAX_CACHED_CALL_SITES)
+				callSites.putIfAbsent(site, location);
+		}
+		return location;
+	}
+
+	private static boolean isLoggerClass(Class<?> c) {
+		return c == EcompLogger.class || c == Stopwatch.class || c == CallerLocation.class;
+	}
+
+	private static Mode initialMode() {
+		String m = System.getProperty(MODE_PROPERTY);
+		if (m != null) {
+			try {
+				return Mode.valueOf(m.trim().toUpperCase());
+			} catch (IllegalArgumentException e) {
+				// fall through to the default
+			}
+		}
+		return Mode.BOUNDED;
+	}
+
+	private static final class CallSite {
+		private final Class<?> declaringClass;
+		private final String method;
+		private final int bci;
+
+		CallSite(Class<?> declaringClass, String method, int bci) {
+			this.declaringClass = declaringClass;
+			this.method = method;
+			this.bci = bci;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof CallSite))
+				return false;
+			CallSite other = (CallSite) o;
+			return declaringClass == other.declaringClass && bci == other.bci && method.equals(other.method);
+		}
+
+		@Override
+		public int hashCode() {
+			return (declaringClass.hashCode() * 31 + method.hashCode()) * 31 + bci;
+		}
+	}
+}